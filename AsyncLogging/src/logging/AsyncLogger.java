@@ -0,0 +1,224 @@
+package logging;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Console logger for hot paths. Callers only enqueue the line (or the {@code printf} format and
+ * arguments) on a bounded queue; a single daemon writer thread formats, batches and flushes them,
+ * so worker threads no longer serialize on the {@link PrintStream} lock.
+ * <p>
+ * When the queue is full the {@link OverflowPolicy} decides whether the caller waits or the line is
+ * dropped and counted. Pending lines are flushed by a shutdown hook, so a program can simply exit.
+ * <p>
+ * The writer thread starts with the first line logged, and one shutdown hook serves every logger;
+ * {@link #close()} stops a logger that is no longer needed. A line that fails to format is reported
+ * on {@code System.err} and skipped, the writer keeps going.
+ */
+public final class AsyncLogger implements AutoCloseable {
+    public enum OverflowPolicy {BLOCK, DROP}
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+    private static final Set<AsyncLogger> RUNNING = ConcurrentHashMap.newKeySet();
+    private static final AsyncLogger SHARED = new AsyncLogger(System.out, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(()->{
+            for(AsyncLogger logger: RUNNING){
+                logger.flush(1, TimeUnit.SECONDS);
+            }
+        }, "async-logger-shutdown"));
+    }
+
+    private record Entry(String format, Object[] args, CountDownLatch flushed) {}
+
+    private final PrintStream out;
+    private final BlockingQueue<Entry> queue;
+    private final OverflowPolicy policy;
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread writer;
+    private volatile boolean closed;
+
+    public AsyncLogger(PrintStream out, int capacity, OverflowPolicy policy) {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+    }
+
+    /** Logs a line through the shared logger writing to {@code System.out}. */
+    public static void log(String line) {
+        SHARED.println(line);
+    }
+
+    /**
+     * Same as {@link PrintStream#printf}, but the formatting itself happens later on the writer thread, so the
+     * arguments must not change after the call: pass immutable values (or a copy), not a live mutable object.
+     */
+    public static void printf(String format, Object... args) {
+        SHARED.format(format, args);
+    }
+
+    public static AsyncLogger shared() {
+        return SHARED;
+    }
+
+    public void println(String line) {
+        enqueue(new Entry(line, null, null));
+    }
+
+    /** Formats on the writer thread; see {@link #printf} for what that means for the arguments. */
+    public void format(String format, Object... args) {
+        enqueue(new Entry(format, args, null));
+    }
+
+    /** Waits until every line logged before this call has been written. */
+    public boolean flush(long timeout, TimeUnit unit) {
+        if(!ensureWriter()){
+            return true;
+        }
+        return awaitWritten(timeout, unit);
+    }
+
+    private boolean awaitWritten(long timeout, TimeUnit unit) {
+        CountDownLatch flushed = new CountDownLatch(1);
+        try {
+            if(!queue.offer(new Entry(null, null, flushed), timeout, unit)){
+                return false;
+            }
+            return flushed.await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops taking lines, writes what is pending and stops the writer thread. Every line is either written
+     * or counted as dropped, including lines logged while the logger is closing.
+     */
+    @Override
+    public void close() {
+        Thread stopping;
+        synchronized (this) {
+            if(closed){
+                return;
+            }
+            closed = true;
+            stopping = writer;
+        }
+        RUNNING.remove(this);
+        if(stopping!=null){
+            awaitWritten(1, TimeUnit.SECONDS);
+            stopping.interrupt();
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Entry> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        for(Entry entry: unwritten){
+            if(entry.flushed()==null){
+                dropped.increment();
+            }else{
+                entry.flushed().countDown();
+            }
+        }
+    }
+
+    private synchronized boolean ensureWriter() {
+        if(closed){
+            return false;
+        }
+        if(writer==null){
+            writer = new Thread(this::writeLoop, "async-logger");
+            writer.setDaemon(true);
+            writer.start();
+            RUNNING.add(this);
+        }
+        return true;
+    }
+
+    private void enqueue(Entry entry) {
+        if(writer==null || closed){
+            if(!ensureWriter()){
+                dropped.increment();
+                return;
+            }
+        }
+        if(policy==OverflowPolicy.DROP){
+            if(!queue.offer(entry)){
+                dropped.increment();
+                return;
+            }
+        }else{
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return;
+            }
+        }
+        // closed while we queued: the writer may be gone, and close() may have drained the queue already
+        if(closed && queue.remove(entry)){
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        while(true){
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH-1);
+            for(Entry entry: batch){
+                if(entry.flushed()!=null){
+                    continue;
+                }
+                int length = text.length();
+                try {
+                    if(entry.args()==null){
+                        text.append(entry.format()).append(System.lineSeparator());
+                    }else{
+                        text.append(String.format(entry.format(), entry.args()));
+                    }
+                } catch (RuntimeException e) {
+                    text.setLength(length);
+                    System.err.println("async-logger: skipped line with format \""+entry.format()+"\": "+e);
+                }
+            }
+            try {
+                out.print(text);
+                out.flush();
+            } catch (RuntimeException e) {
+                System.err.println("async-logger: write failed: "+e);
+            }
+            for(Entry entry: batch){
+                if(entry.flushed()!=null){
+                    entry.flushed().countDown();
+                }
+            }
+            text.setLength(0);
+            batch.clear();
+        }
+    }
+}
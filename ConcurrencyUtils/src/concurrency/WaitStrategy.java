@@ -0,0 +1,57 @@
+package concurrency;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a thread does while a lock-free ring or queue is full (writer) or empty (reader).
+ * {@code idle} is called once per failed attempt with the number of attempts so far and returns the next count;
+ * callers that can be interrupted call {@link #checkInterrupt()} before it.
+ */
+public enum WaitStrategy {
+    /** Lowest latency; burns a whole core per waiting thread, so only use it with a core to spare. */
+    BUSY_SPIN {
+        @Override
+        public int idle(int attempts) {
+            Thread.onSpinWait();
+            return attempts + 1;
+        }
+    },
+    /** Spins briefly, then gives the core away with {@link Thread#yield()}. */
+    YIELDING {
+        @Override
+        public int idle(int attempts) {
+            if(attempts < SPIN_TRIES){
+                Thread.onSpinWait();
+            }else{
+                Thread.yield();
+            }
+            return attempts + 1;
+        }
+    },
+    /** Spins, yields, then parks for short intervals; costs no CPU while idle and suits more waiters than cores. */
+    PARKING {
+        @Override
+        public int idle(int attempts) {
+            if(attempts < SPIN_TRIES){
+                Thread.onSpinWait();
+            }else if(attempts < SPIN_TRIES + YIELD_TRIES){
+                Thread.yield();
+            }else{
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return attempts + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    public abstract int idle(int attempts);
+
+    public void checkInterrupt() throws InterruptedException {
+        if(Thread.interrupted()){
+            throw new InterruptedException();
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import logging.AsyncLogger;
+
 import java.sql.Time;
 import java.util.List;
 import java.util.concurrent.*;
@@ -40,7 +42,7 @@ public class Main {
         try{
             var results = multiExecutor.invokeAll(taskList);
             for(var result: results){
-                System.out.println(result.get(500, TimeUnit.SECONDS));
+                AsyncLogger.log(String.valueOf(result.get(500, TimeUnit.SECONDS)));
             }
         }
         catch (InterruptedException | TimeoutException | ExecutionException e){
@@ -62,16 +64,16 @@ public class Main {
 
 
             try{
-                System.out.println(yellowValue.get(500, TimeUnit.SECONDS));
-                System.out.println(cyanValue.get(500, TimeUnit.SECONDS));
-                System.out.println(purpleValue.get(500, TimeUnit.SECONDS));
+                AsyncLogger.log(String.valueOf(yellowValue.get(500, TimeUnit.SECONDS)));
+                AsyncLogger.log(String.valueOf(cyanValue.get(500, TimeUnit.SECONDS)));
+                AsyncLogger.log(String.valueOf(purpleValue.get(500, TimeUnit.SECONDS)));
 
                 TimeUnit.SECONDS.sleep(1);
             }catch (InterruptedException | ExecutionException | TimeoutException ex){
                 throw new RuntimeException(ex);
             }
 
-            System.out.println("Next Task will get executed");
+            AsyncLogger.log("Next Task will get executed");
             for(var color: new String[]{"red", "blue", "green", "yellow"}){
                 multiExecutor.execute(()-> Main.sum(1, 10, 1, color));
             }
@@ -104,7 +106,7 @@ public class Main {
 
 
         if(isDone){
-            System.out.println("Blue finished, starting yellow");
+            AsyncLogger.log("Blue finished, starting yellow");
             var yellowExecutor = Executors.newSingleThreadExecutor(new ColorThreadFactory(ThreadColor.ANSI_YELLOW));
             yellowExecutor.execute(Main::countDown);
             yellowExecutor.shutdown();
@@ -118,7 +120,7 @@ public class Main {
             }
 
             if(isDone){
-                System.out.println("Yellow finished, starting red");
+                AsyncLogger.log("Yellow finished, starting red");
                 var redExecutor = Executors.newSingleThreadExecutor(new ColorThreadFactory(ThreadColor.ANSI_RED));
                 redExecutor.execute(Main::countDown);
                 redExecutor.shutdown();
@@ -129,7 +131,7 @@ public class Main {
                 }
 
                 if(isDone){
-                    System.out.println("All process completed");
+                    AsyncLogger.log("All process completed");
                 }
             }
 
@@ -176,7 +178,7 @@ public class Main {
         String color = threadColor.color();
 
         for(int i=20; i>=0; i--){
-            System.out.println(color+ "  "+threadName.replace("ANSI_", "")+" "+ i);
+            AsyncLogger.log(color+ "  "+threadName.replace("ANSI_", "")+" "+ i);
         }
     }
 
@@ -195,7 +197,7 @@ public class Main {
             sum+=i;
         }
 
-        System.out.println(color+Thread.currentThread().getName()+ ", "+ colorString + " "+ sum);
+        AsyncLogger.log(color+Thread.currentThread().getName()+ ", "+ colorString + " "+ sum);
     }
 
     private static int sum2(int start, int end, int delta, String colorString){
@@ -213,7 +215,7 @@ public class Main {
             sum+=i;
         }
 
-        System.out.println(color+Thread.currentThread().getName()+ ", "+ colorString + " "+ sum);
+        AsyncLogger.log(color+Thread.currentThread().getName()+ ", "+ colorString + " "+ sum);
         return sum;
     }
 }
\ No newline at end of file
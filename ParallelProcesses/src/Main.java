@@ -1,3 +1,5 @@
+import logging.AsyncLogger;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,7 +21,7 @@ class RecursiveSumTask extends RecursiveTask<Long>{
     @Override
     protected Long compute() {
         if((end-start)<= (numbers.length/division)){
-            System.out.println(start + " : "+end);
+            AsyncLogger.log(start + " : "+end);
             long sum = 0;
             for(int i=start; i<end; i++){
                 sum+=numbers[i];
@@ -42,7 +44,7 @@ public class Main {
         long[] numbers = new Random().longs(numberLength, 1, numberLength).toArray();
         long sum = Arrays.stream(numbers).sum();
 
-        System.out.println("sum: "+sum);
+        AsyncLogger.log("sum: "+sum);
 
 
 
@@ -66,24 +68,24 @@ public class Main {
         }
 
         List<Future<Long>> futures = threadPool.invokeAll(tasks);
-        System.out.println("CPUs: "+Runtime.getRuntime().availableProcessors());
-        System.out.println("Parallelism: "+threadPool.getParallelism());
-        System.out.println("Pool Size: "+threadPool.getPoolSize());
-        System.out.println("Steal Count: "+threadPool.getStealCount());
+        AsyncLogger.log("CPUs: "+Runtime.getRuntime().availableProcessors());
+        AsyncLogger.log("Parallelism: "+threadPool.getParallelism());
+        AsyncLogger.log("Pool Size: "+threadPool.getPoolSize());
+        AsyncLogger.log("Steal Count: "+threadPool.getStealCount());
 
         long taskSum = 0;
         for(Future<Long> future : futures){
             taskSum+= future.get();
         }
 
-        System.out.println("Thread Pool Sum: "+taskSum);
+        AsyncLogger.log("Thread Pool Sum: "+taskSum);
 
         RecursiveTask<Long> task = new RecursiveSumTask(numbers, 0, numberLength, 8);
         long forkJoinSum = threadPool.invoke(task);
-        System.out.println("RecurisveTask sum is:"+forkJoinSum);
+        AsyncLogger.log("RecurisveTask sum is:"+forkJoinSum);
 
         threadPool.shutdown();
-        System.out.println(threadPool.getClass().getName());
+        AsyncLogger.log(threadPool.getClass().getName());
 
     }
 }
\ No newline at end of file
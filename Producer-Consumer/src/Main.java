@@ -1,33 +1,12 @@
+import concurrency.WaitStrategy;
+
+import java.util.List;
 import java.util.Random;
 
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
-class MessageRepository{
-    private String message;
-    private boolean hasMessage = false;
-
-    public synchronized String read() throws InterruptedException {
-        while(!hasMessage){
-            wait();
-        }
-        hasMessage = false;
-        notifyAll();
-        return message;
-    }
-
-    public synchronized void write(String message) throws InterruptedException {
-        while(hasMessage){
-            wait();
-        }
-        hasMessage = true;
-        notifyAll();
-        this.message = message;
-    }
-}
-
-
 class MessageWriter implements Runnable{
-    private MessageRepository outgoingMessage;
+    private MessageSink outgoingMessage;
 
     private final String text = """
                                 Twinkle Twinkle little stars,
@@ -36,7 +15,7 @@ class MessageWriter implements Runnable{
                                 Like a diamond in the sky.
                                 """;
 
-    public MessageWriter(MessageRepository outgoingMessage) {
+    public MessageWriter(MessageSink outgoingMessage) {
         this.outgoingMessage = outgoingMessage;
     }
 
@@ -68,16 +47,16 @@ class MessageWriter implements Runnable{
 }
 
 class MessageReader implements Runnable{
-    private MessageRepository incomingMessage;
+    private MessageSource incomingMessage;
 
-    public MessageReader(MessageRepository incomingMessage) {
+    public MessageReader(MessageSource incomingMessage) {
         this.incomingMessage = incomingMessage;
     }
 
     @Override
     public void run() {
             Random random = new Random();
-            String latestMessage = "";
+            List<String> latestMessages = List.of();
 
             do{
                 try{
@@ -86,18 +65,34 @@ class MessageReader implements Runnable{
                     throw new RuntimeException(e);
                 }
                 try {
-                    latestMessage = incomingMessage.read();
+                    latestMessages = incomingMessage.readBatch(Integer.MAX_VALUE);
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
-                System.out.println(latestMessage);
-            }while (!latestMessage.equals("Finished"));
+                latestMessages.forEach(System.out::println);
+            }while (!latestMessages.contains("Finished"));
     }
 }
 
 public class Main {
+    /**
+     * {@code java Main [BUSY_SPIN|YIELDING|PARKING]} hands the lines over an {@link SpscMessageRing} instead;
+     * {@code java Main multicast [readers]} sends every line to each of several readers over a {@link MulticastMessageRing}.
+     */
     public static void main(String[] args) {
-        MessageRepository messageRepository = new MessageRepository();
+        if(args.length>0 && args[0].equals("multicast")){
+            int readers = args.length>1 ? Integer.parseInt(args[1]) : 3;
+            MulticastMessageRing ring = new MulticastMessageRing(4, WaitStrategy.PARKING);
+            for(int i=0;i<readers;i++){
+                new Thread(new MessageReader(ring.subscribe()), "Reader-"+i).start();
+            }
+            new Thread(new MessageWriter(ring)).start();
+            return;
+        }
+
+        MessageChannel messageRepository = args.length>0
+                ? new SpscMessageRing(4, WaitStrategy.valueOf(args[0]))
+                : new MessageRepository(4);
 
         Thread reader = new Thread(new MessageReader(messageRepository));
         Thread writer = new Thread(new MessageWriter(messageRepository));
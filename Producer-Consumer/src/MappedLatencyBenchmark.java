@@ -0,0 +1,76 @@
+import concurrency.WaitStrategy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Two-process ping-pong over a pair of {@link MappedMessageRing}s: this JVM writes to one ring and a
+ * child JVM echoes every message back through the other, so one round trip is two cross-process hand-offs.
+ * <pre>
+ *     java MappedLatencyBenchmark [roundTrips] [warmup] [BUSY_SPIN|YIELDING|PARKING]
+ * </pre>
+ */
+public class MappedLatencyBenchmark {
+    private static final int SLOTS = 1024;
+    private static final int SLOT_SIZE = 256;
+
+    public static void main(String[] args) throws Exception {
+        if(args.length>0 && args[0].equals("echo")){
+            echo(Path.of(args[1]), Path.of(args[2]), WaitStrategy.valueOf(args[3]));
+            return;
+        }
+        int roundTrips = args.length>0 ? Integer.parseInt(args[0]) : 200_000;
+        int warmup = args.length>1 ? Integer.parseInt(args[1]) : 50_000;
+        WaitStrategy strategy = WaitStrategy.valueOf(args.length>2 ? args[2] : "YIELDING");
+
+        Path directory = Files.createTempDirectory("mapped-rings");
+        Path pingFile = directory.resolve("ping");
+        Path pongFile = directory.resolve("pong");
+        try(MappedMessageRing ping = new MappedMessageRing(pingFile, SLOTS, SLOT_SIZE, strategy);
+            MappedMessageRing pong = new MappedMessageRing(pongFile, SLOTS, SLOT_SIZE, strategy)){
+            Process echo = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    MappedLatencyBenchmark.class.getName(), "echo", pingFile.toString(), pongFile.toString(), strategy.name())
+                    .inheritIO().start();
+
+            long[] latencies = new long[roundTrips];
+            for(int i=-warmup;i<roundTrips;i++){
+                long start = System.nanoTime();
+                ping.write("ping");
+                pong.read();
+                if(i>=0){
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }
+            ping.write("Finished");
+            pong.read();
+            echo.waitFor();
+
+            Arrays.sort(latencies);
+            System.out.printf("MappedMessageRing %s, %d round trips between two JVMs, one-way hand-off: p50 %.2f us | p99 %.2f us | p99.9 %.2f us | max %.1f us%n",
+                    strategy, roundTrips, oneWayMicros(latencies, 0.50), oneWayMicros(latencies, 0.99),
+                    oneWayMicros(latencies, 0.999), latencies[roundTrips-1]/2_000.0);
+        } finally {
+            Files.deleteIfExists(pingFile);
+            Files.deleteIfExists(pongFile);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void echo(Path pingFile, Path pongFile, WaitStrategy strategy) throws Exception {
+        try(MappedMessageRing ping = new MappedMessageRing(pingFile, SLOTS, SLOT_SIZE, strategy);
+            MappedMessageRing pong = new MappedMessageRing(pongFile, SLOTS, SLOT_SIZE, strategy)){
+            String message;
+            do{
+                message = ping.read();
+                pong.write(message);
+            }while (!message.equals("Finished"));
+        }
+    }
+
+    private static double oneWayMicros(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length-1, percentile*sorted.length)]/2_000.0;
+    }
+}
@@ -0,0 +1,205 @@
+import concurrency.WaitStrategy;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-writer/single-reader ring in a memory-mapped file, so the writer and the reader can run in
+ * different JVMs on the same host. Once both have mapped the file a message goes straight from the
+ * writer's encoder into shared memory and is decoded from there, without a system call.
+ * <p>
+ * The file holds the write sequence and the read sequence, each on its own cache line, then
+ * {@code capacity} slots of {@code slotSize} bytes: an {@code int} length followed by the UTF-8 text.
+ * Each sequence is stored only by its owner with release semantics and loaded by the other process
+ * with acquire semantics, which orders the slot contents around it just as it would between threads.
+ * <p>
+ * A new file starts empty; reopening an existing one carries on from the sequences stored in it.
+ */
+final class MappedMessageRing implements MessageChannel, AutoCloseable {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int WRITE_SEQUENCE = 0;
+    private static final int READ_SEQUENCE = 64;
+    private static final int CAPACITY = 128;
+    private static final int SLOT_SIZE = 132;
+    private static final int HEADER_SIZE = 192;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int slotSize;
+    private final WaitStrategy waitStrategy;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private long cachedReadSequence;
+    private long cachedWriteSequence;
+
+    MappedMessageRing(Path file, int capacity, int slotSize, WaitStrategy waitStrategy) throws IOException {
+        if(capacity<1 || slotSize<=Integer.BYTES || (long) capacity*slotSize > Integer.MAX_VALUE-HEADER_SIZE){
+            throw new IllegalArgumentException("bad ring size: "+capacity+" slots of "+slotSize+" bytes");
+        }
+        this.capacity = capacity;
+        this.slotSize = slotSize;
+        this.waitStrategy = waitStrategy;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity*slotSize);
+        buffer.order(ByteOrder.nativeOrder());
+        if(buffer.getInt(CAPACITY)==0){
+            buffer.putInt(CAPACITY, capacity);
+            buffer.putInt(SLOT_SIZE, slotSize);
+        }else if(buffer.getInt(CAPACITY)!=capacity || buffer.getInt(SLOT_SIZE)!=slotSize){
+            throw new IllegalArgumentException(file+" holds a ring of "+buffer.getInt(CAPACITY)+" slots of "
+                    +buffer.getInt(SLOT_SIZE)+" bytes");
+        }
+        this.cachedReadSequence = readSequence();
+        this.cachedWriteSequence = writeSequence();
+    }
+
+    /**
+     * Returns false when the ring is full. A message longer than a slot or not encodable as UTF-8
+     * (an unpaired surrogate) throws IllegalArgumentException and is not published.
+     */
+    public boolean offer(String message) {
+        long sequence = (long) LONGS.get(buffer, WRITE_SEQUENCE);
+        if(sequence - cachedReadSequence == capacity){
+            cachedReadSequence = readSequence();
+            if(sequence - cachedReadSequence == capacity){
+                return false;
+            }
+        }
+        encode(message, slot(sequence));
+        LONGS.setRelease(buffer, WRITE_SEQUENCE, sequence+1);
+        return true;
+    }
+
+    public String poll() {
+        long sequence = (long) LONGS.get(buffer, READ_SEQUENCE);
+        if(sequence == cachedWriteSequence){
+            cachedWriteSequence = writeSequence();
+            if(sequence == cachedWriteSequence){
+                return null;
+            }
+        }
+        String message = decode(slot(sequence));
+        LONGS.setRelease(buffer, READ_SEQUENCE, sequence+1);
+        return message;
+    }
+
+    @Override
+    public String read() throws InterruptedException {
+        String message;
+        int attempts = 0;
+        while((message = poll())==null){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+        return message;
+    }
+
+    @Override
+    public List<String> readBatch(int max) throws InterruptedException {
+        long sequence = (long) LONGS.get(buffer, READ_SEQUENCE);
+        int attempts = 0;
+        while(sequence == (cachedWriteSequence = writeSequence())){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+        int count = (int) Math.min(max, cachedWriteSequence - sequence);
+        List<String> batch = new ArrayList<>(count);
+        for(int i=0;i<count;i++){
+            batch.add(decode(slot(sequence+i)));
+        }
+        LONGS.setRelease(buffer, READ_SEQUENCE, sequence+count);
+        return batch;
+    }
+
+    @Override
+    public void write(String message) throws InterruptedException {
+        int attempts = 0;
+        while(!offer(message)){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+    }
+
+    /**
+     * Publishes each run of free slots with a single release store. A message that {@link #offer}
+     * would throw for stops the batch: the messages before it are published, then the exception propagates.
+     */
+    @Override
+    public void writeAll(List<String> batch) throws InterruptedException {
+        int next = 0;
+        int attempts = 0;
+        while(next<batch.size()){
+            long sequence = (long) LONGS.get(buffer, WRITE_SEQUENCE);
+            cachedReadSequence = readSequence();
+            int free = (int) Math.min(batch.size()-next, capacity - (sequence - cachedReadSequence));
+            if(free==0){
+                waitStrategy.checkInterrupt();
+                attempts = waitStrategy.idle(attempts);
+                continue;
+            }
+            int encoded = 0;
+            try {
+                while(encoded<free){
+                    encode(batch.get(next), slot(sequence+encoded));
+                    next++;
+                    encoded++;
+                }
+            } finally {
+                LONGS.setRelease(buffer, WRITE_SEQUENCE, sequence+encoded);
+            }
+            attempts = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long writeSequence() {
+        return (long) LONGS.getAcquire(buffer, WRITE_SEQUENCE);
+    }
+
+    private long readSequence() {
+        return (long) LONGS.getAcquire(buffer, READ_SEQUENCE);
+    }
+
+    private int slot(long sequence) {
+        return HEADER_SIZE + (int) (sequence % capacity) * slotSize;
+    }
+
+    private void encode(String message, int slot) {
+        ByteBuffer text = buffer.slice(slot + Integer.BYTES, slotSize - Integer.BYTES);
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(message), text, true);
+        if(result.isUnderflow()){
+            result = encoder.flush(text);
+        }
+        if(result.isOverflow()){
+            throw new IllegalArgumentException("message longer than "+(slotSize - Integer.BYTES)+" bytes");
+        }
+        if(result.isError()){
+            throw new IllegalArgumentException("message is not valid UTF-16 text: "+result);
+        }
+        buffer.putInt(slot, text.position());
+    }
+
+    private String decode(int slot) {
+        byte[] text = new byte[buffer.getInt(slot)];
+        buffer.get(slot + Integer.BYTES, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
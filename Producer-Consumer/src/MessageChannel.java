@@ -0,0 +1,3 @@
+/** One-way hand-off of text lines from a {@link MessageWriter} to a {@link MessageReader}. */
+interface MessageChannel extends MessageSource, MessageSink {
+}
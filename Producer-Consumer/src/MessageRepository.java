@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded FIFO of up to {@code capacity} messages, so a writer can run ahead of a slower reader.
+ * With the default capacity of one, writer and reader alternate exactly as before.
+ */
+class MessageRepository implements MessageChannel{
+    private final String[] messages;
+    private int head = 0;
+    private int count = 0;
+
+    public MessageRepository() {
+        this(1);
+    }
+
+    public MessageRepository(int capacity) {
+        if(capacity<1){
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.messages = new String[capacity];
+    }
+
+    @Override
+    public synchronized String read() throws InterruptedException {
+        while(count==0){
+            wait();
+        }
+        String message = dequeue();
+        notifyAll();
+        return message;
+    }
+
+    @Override
+    public synchronized List<String> readBatch(int max) throws InterruptedException {
+        while(count==0){
+            wait();
+        }
+        List<String> batch = new ArrayList<>(Math.min(max, count));
+        while(count>0 && batch.size()<max){
+            batch.add(dequeue());
+        }
+        notifyAll();
+        return batch;
+    }
+
+    @Override
+    public synchronized void write(String message) throws InterruptedException {
+        while(count==messages.length){
+            wait();
+        }
+        enqueue(message);
+        notifyAll();
+    }
+
+    /** Wakes the reader each time the repository fills up. */
+    @Override
+    public synchronized void writeAll(List<String> batch) throws InterruptedException {
+        int next = 0;
+        while(next<batch.size()){
+            while(count==messages.length){
+                wait();
+            }
+            while(count<messages.length && next<batch.size()){
+                enqueue(batch.get(next++));
+            }
+            notifyAll();
+        }
+    }
+
+    private void enqueue(String message){
+        messages[(head+count)%messages.length] = message;
+        count++;
+    }
+
+    private String dequeue(){
+        String message = messages[head];
+        messages[head] = null;
+        head = (head+1)%messages.length;
+        count--;
+        return message;
+    }
+}
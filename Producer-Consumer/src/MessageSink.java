@@ -0,0 +1,9 @@
+import java.util.List;
+
+/** The writing end of a hand-off, as used by {@link MessageWriter}; {@code write} blocks while there is no room. */
+interface MessageSink {
+    void write(String message) throws InterruptedException;
+
+    /** Blocks until every message in {@code batch} has been written, in list order. */
+    void writeAll(List<String> batch) throws InterruptedException;
+}
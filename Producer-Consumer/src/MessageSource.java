@@ -0,0 +1,9 @@
+import java.util.List;
+
+/** The reading end of a hand-off, as used by {@link MessageReader}; {@code read} blocks while no message is waiting. */
+interface MessageSource {
+    String read() throws InterruptedException;
+
+    /** Waits for at least one message, then removes up to {@code max} in the order they were written. */
+    List<String> readBatch(int max) throws InterruptedException;
+}
@@ -0,0 +1,168 @@
+import concurrency.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One writer publishing into a ring that any number of readers consume independently: every reader
+ * sees every message written after it subscribed, and reading doesn't remove anything.
+ * <p>
+ * Each {@link Reader} owns a {@link Sequence} cursor; the writer only overwrites a slot once every
+ * reader has moved past it, so a slow reader holds the writer back only when it is a full ring
+ * behind. The writer keeps the lowest cursor it last saw and only rescans the readers when it
+ * catches up with that value.
+ * <p>
+ * Exactly one thread may write. Readers subscribe before the writer starts and each reader is used
+ * by one thread; {@link Reader#close()} stops a reader from holding the writer back.
+ */
+final class MulticastMessageRing implements MessageSink {
+    private final String[] messages;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final Sequence cursor = new Sequence(0);
+    private volatile Sequence[] readerSequences = new Sequence[0];
+    private long cachedMinimumReaderSequence;
+
+    /** {@code capacity} is rounded up to a power of two. */
+    MulticastMessageRing(int capacity, WaitStrategy waitStrategy) {
+        if(capacity<1 || capacity>(1<<30)){
+            throw new IllegalArgumentException("capacity out of range: "+capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size<capacity){
+            size<<=1;
+        }
+        this.messages = new String[size];
+        this.mask = size-1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    final class Reader implements MessageSource, AutoCloseable {
+        private final Sequence sequence;
+        private long cachedCursor;
+
+        private Reader(long start) {
+            this.sequence = new Sequence(start);
+            this.cachedCursor = start;
+        }
+
+        public String poll() {
+            long next = sequence.get();
+            if(next == cachedCursor){
+                cachedCursor = cursor.get();
+                if(next == cachedCursor){
+                    return null;
+                }
+            }
+            String message = messages[(int) next & mask];
+            sequence.set(next+1);
+            return message;
+        }
+
+        @Override
+        public String read() throws InterruptedException {
+            String message;
+            int attempts = 0;
+            while((message = poll())==null){
+                waitStrategy.checkInterrupt();
+                attempts = waitStrategy.idle(attempts);
+            }
+            return message;
+        }
+
+        @Override
+        public List<String> readBatch(int max) throws InterruptedException {
+            long next = sequence.get();
+            int attempts = 0;
+            while(next == (cachedCursor = cursor.get())){
+                waitStrategy.checkInterrupt();
+                attempts = waitStrategy.idle(attempts);
+            }
+            int count = (int) Math.min(max, cachedCursor - next);
+            List<String> batch = new ArrayList<>(count);
+            for(int i=0;i<count;i++){
+                batch.add(messages[(int) (next+i) & mask]);
+            }
+            sequence.set(next+count);
+            return batch;
+        }
+
+        @Override
+        public void close() {
+            unsubscribe(sequence);
+        }
+    }
+
+    /** Returns a reader that starts at the next message written. */
+    synchronized Reader subscribe() {
+        Reader reader = new Reader(cursor.get());
+        Sequence[] sequences = Arrays.copyOf(readerSequences, readerSequences.length+1);
+        sequences[sequences.length-1] = reader.sequence;
+        readerSequences = sequences;
+        return reader;
+    }
+
+    private synchronized void unsubscribe(Sequence sequence) {
+        List<Sequence> sequences = new ArrayList<>(Arrays.asList(readerSequences));
+        sequences.remove(sequence);
+        readerSequences = sequences.toArray(new Sequence[0]);
+    }
+
+    public boolean offer(String message) {
+        long next = cursor.get();
+        if(!hasRoom(next)){
+            return false;
+        }
+        messages[(int) next & mask] = message;
+        cursor.set(next+1);
+        return true;
+    }
+
+    @Override
+    public void write(String message) throws InterruptedException {
+        int attempts = 0;
+        while(!offer(message)){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+    }
+
+    /** Publishes each run of free slots with a single release store. */
+    @Override
+    public void writeAll(List<String> batch) throws InterruptedException {
+        int written = 0;
+        int attempts = 0;
+        while(written<batch.size()){
+            long next = cursor.get();
+            int free = 0;
+            while(written+free<batch.size() && hasRoom(next+free)){
+                free++;
+            }
+            if(free==0){
+                waitStrategy.checkInterrupt();
+                attempts = waitStrategy.idle(attempts);
+                continue;
+            }
+            for(int i=0;i<free;i++){
+                messages[(int) (next+i) & mask] = batch.get(written++);
+            }
+            cursor.set(next+free);
+            attempts = 0;
+        }
+    }
+
+    /** True when slot {@code sequence} is no longer needed by any reader. */
+    private boolean hasRoom(long sequence) {
+        long wrapPoint = sequence - messages.length;
+        if(wrapPoint < cachedMinimumReaderSequence){
+            return true;
+        }
+        long minimum = sequence;
+        for(Sequence readerSequence: readerSequences){
+            minimum = Math.min(minimum, readerSequence.get());
+        }
+        cachedMinimumReaderSequence = minimum;
+        return wrapPoint < minimum;
+    }
+}
@@ -0,0 +1,72 @@
+import concurrency.WaitStrategy;
+
+import java.util.Arrays;
+
+/**
+ * Hand-off latency of {@link MessageRepository} against {@link SpscMessageRing} with each wait strategy:
+ * a ping-pong over two channels, where one round trip is two hand-offs.
+ * {@link WaitStrategy#BUSY_SPIN} is skipped on machines with a single core, where two spinning threads
+ * only take turns at the scheduler's pace.
+ * <pre>
+ *     java SpscLatencyBenchmark [roundTrips] [warmup]
+ * </pre>
+ */
+public class SpscLatencyBenchmark {
+    interface ChannelFactory {
+        MessageChannel create();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int roundTrips = args.length>0 ? Integer.parseInt(args[0]) : 200_000;
+        int warmup = args.length>1 ? Integer.parseInt(args[1]) : 50_000;
+
+        run("MessageRepository", MessageRepository::new, roundTrips, warmup);
+        for(WaitStrategy strategy: WaitStrategy.values()){
+            if(strategy==WaitStrategy.BUSY_SPIN && Runtime.getRuntime().availableProcessors()<2){
+                System.out.println("SpscMessageRing " + strategy + ": skipped, needs two cores");
+                continue;
+            }
+            run("SpscMessageRing " + strategy, () -> new SpscMessageRing(1024, strategy), roundTrips, warmup);
+        }
+    }
+
+    private static void run(String name, ChannelFactory factory, int roundTrips, int warmup) throws InterruptedException {
+        MessageChannel ping = factory.create();
+        MessageChannel pong = factory.create();
+
+        Thread echo = new Thread(()->{
+            try {
+                String message;
+                do{
+                    message = ping.read();
+                    pong.write(message);
+                }while (!message.equals("Finished"));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }, "Echo");
+        echo.start();
+
+        long[] latencies = new long[roundTrips];
+        for(int i=-warmup;i<roundTrips;i++){
+            long start = System.nanoTime();
+            ping.write("ping");
+            pong.read();
+            if(i>=0){
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        ping.write("Finished");
+        pong.read();
+        echo.join();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-32s one-way hand-off: p50 %.2f us | p99 %.2f us | p99.9 %.2f us | max %.1f us%n",
+                name, oneWayMicros(latencies, 0.50), oneWayMicros(latencies, 0.99),
+                oneWayMicros(latencies, 0.999), latencies[roundTrips-1]/2_000.0);
+    }
+
+    private static double oneWayMicros(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length-1, percentile*sorted.length)]/2_000.0;
+    }
+}
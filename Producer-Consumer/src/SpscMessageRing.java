@@ -0,0 +1,162 @@
+import concurrency.WaitStrategy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+abstract class LhsPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class WriteSequence extends LhsPadding {
+    protected long writeSequence;
+    protected long cachedReadSequence;
+}
+
+abstract class MiddlePadding extends WriteSequence {
+    protected long p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class ReadSequence extends MiddlePadding {
+    protected long readSequence;
+    protected long cachedWriteSequence;
+}
+
+abstract class RhsPadding extends ReadSequence {
+    protected long p21, p22, p23, p24, p25, p26, p27;
+}
+
+/**
+ * Single-writer/single-reader ring buffer in the style of the LMAX Disruptor.
+ * <p>
+ * The writer owns {@code writeSequence}, the reader owns {@code readSequence}; each is only ever stored
+ * by its owner, with release semantics, and loaded by the other side with acquire semantics, so
+ * {@code offer} and {@code poll} are wait-free and take no lock. The two sequences live on separate
+ * cache lines, padded on both sides, so writer and reader don't invalidate each other's line on every
+ * message. Each side also keeps a plain copy of the other side's sequence and only rereads the shared
+ * one when that copy says the ring is full (or empty).
+ * <p>
+ * Exactly one thread may write and one thread may read.
+ */
+final class SpscMessageRing extends RhsPadding implements MessageChannel {
+    private static final VarHandle WRITE_SEQUENCE;
+    private static final VarHandle READ_SEQUENCE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRITE_SEQUENCE = lookup.findVarHandle(WriteSequence.class, "writeSequence", long.class);
+            READ_SEQUENCE = lookup.findVarHandle(ReadSequence.class, "readSequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String[] messages;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    /** {@code capacity} is rounded up to a power of two. */
+    SpscMessageRing(int capacity, WaitStrategy waitStrategy) {
+        if(capacity<1 || capacity>(1<<30)){
+            throw new IllegalArgumentException("capacity out of range: "+capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size<capacity){
+            size<<=1;
+        }
+        this.messages = new String[size];
+        this.mask = size-1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean offer(String message) {
+        long sequence = writeSequence;
+        if(sequence - cachedReadSequence == messages.length){
+            cachedReadSequence = (long) READ_SEQUENCE.getAcquire(this);
+            if(sequence - cachedReadSequence == messages.length){
+                return false;
+            }
+        }
+        messages[(int) sequence & mask] = message;
+        WRITE_SEQUENCE.setRelease(this, sequence+1);
+        return true;
+    }
+
+    public String poll() {
+        long sequence = readSequence;
+        if(sequence == cachedWriteSequence){
+            cachedWriteSequence = (long) WRITE_SEQUENCE.getAcquire(this);
+            if(sequence == cachedWriteSequence){
+                return null;
+            }
+        }
+        int index = (int) sequence & mask;
+        String message = messages[index];
+        messages[index] = null;
+        READ_SEQUENCE.setRelease(this, sequence+1);
+        return message;
+    }
+
+    @Override
+    public String read() throws InterruptedException {
+        String message;
+        int attempts = 0;
+        while((message = poll())==null){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+        return message;
+    }
+
+    @Override
+    public List<String> readBatch(int max) throws InterruptedException {
+        int attempts = 0;
+        while(readSequence == (cachedWriteSequence = (long) WRITE_SEQUENCE.getAcquire(this))){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+        long sequence = readSequence;
+        int count = (int) Math.min(max, cachedWriteSequence - sequence);
+        List<String> batch = new ArrayList<>(count);
+        for(int i=0;i<count;i++){
+            int index = (int) (sequence+i) & mask;
+            batch.add(messages[index]);
+            messages[index] = null;
+        }
+        READ_SEQUENCE.setRelease(this, sequence+count);
+        return batch;
+    }
+
+    @Override
+    public void write(String message) throws InterruptedException {
+        int attempts = 0;
+        while(!offer(message)){
+            waitStrategy.checkInterrupt();
+            attempts = waitStrategy.idle(attempts);
+        }
+    }
+
+    /** Publishes each run of free slots with a single release store. */
+    @Override
+    public void writeAll(List<String> batch) throws InterruptedException {
+        int next = 0;
+        int attempts = 0;
+        while(next<batch.size()){
+            long sequence = writeSequence;
+            cachedReadSequence = (long) READ_SEQUENCE.getAcquire(this);
+            int free = (int) Math.min(batch.size()-next, messages.length - (sequence - cachedReadSequence));
+            if(free==0){
+                waitStrategy.checkInterrupt();
+                attempts = waitStrategy.idle(attempts);
+                continue;
+            }
+            for(int i=0;i<free;i++){
+                messages[(int) (sequence+i) & mask] = batch.get(next++);
+            }
+            WRITE_SEQUENCE.setRelease(this, sequence+free);
+            attempts = 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.Arrays;
+
+/**
+ * Measures {@link MessageRepository} hand-off latency with a ping-pong between two threads over two
+ * repositories: one round trip is two hand-offs, so half the round trip is the one-way latency.
+ * With the old sleep-polling repository every hand-off took at least 500 ms.
+ * <pre>
+ *     java HandoffLatencyBenchmark [roundTrips] [warmup]
+ * </pre>
+ */
+public class HandoffLatencyBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int roundTrips = args.length>0 ? Integer.parseInt(args[0]) : 100_000;
+        int warmup = args.length>1 ? Integer.parseInt(args[1]) : 20_000;
+
+        MessageRepository ping = new MessageRepository();
+        MessageRepository pong = new MessageRepository();
+
+        Thread echo = new Thread(()->{
+            String message;
+            do{
+                message = ping.read();
+                if(message!=null){
+                    pong.write(message);
+                }
+            }while (!"Finished".equals(message));
+        }, "Echo");
+        echo.start();
+
+        long[] latencies = new long[roundTrips];
+        for(int i=-warmup;i<roundTrips;i++){
+            long start = System.nanoTime();
+            ping.write("ping");
+            pong.read();
+            if(i>=0){
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        ping.write("Finished");
+        pong.read();
+        echo.join();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d round trips, one-way hand-off: p50 %.1f us | p99 %.1f us | p99.9 %.1f us | max %.1f us%n",
+                roundTrips, oneWayMicros(latencies, 0.50), oneWayMicros(latencies, 0.99),
+                oneWayMicros(latencies, 0.999), latencies[roundTrips-1]/2_000.0);
+    }
+
+    private static double oneWayMicros(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length-1, percentile*sorted.length)]/2_000.0;
+    }
+}
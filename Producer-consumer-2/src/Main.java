@@ -1,64 +1,5 @@
+import java.util.List;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
-class MessageRepository{
-    private String message;
-    private boolean hasMessage = false;
-    private final Lock lock = new ReentrantLock();
-
-    public String read() {
-        try{
-            if (lock.tryLock(3, TimeUnit.SECONDS)) {
-                try {
-                    while (!hasMessage) {
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    hasMessage = false;
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                System.out.println("** read blocked "+ lock);
-                hasMessage = false;
-            }
-        }catch (InterruptedException ex){
-            throw new RuntimeException(ex);
-        }
-        return message;
-    }
-
-    public void write(String message)  {
-        try{
-            if (lock.tryLock(3, TimeUnit.SECONDS)) {
-                try {
-                    while (hasMessage) {
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    hasMessage = true;
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                System.out.println("** write blocked "+ lock);
-                hasMessage = true;
-            }
-        }catch (InterruptedException ex){
-            throw new RuntimeException(ex);
-        }
-        this.message = message;
-    }
-}
-
 
 class MessageWriter implements Runnable{
     private MessageRepository outgoingMessage;
@@ -81,7 +22,7 @@ class MessageWriter implements Runnable{
         String[] lines = text.split("\n");
 
         for(int i=0;i<lines.length;i++){
-            outgoingMessage.write(lines[i]);
+            write(lines[i]);
             try{
                 Thread.sleep(random.nextInt(500, 2000));
             } catch (InterruptedException e) {
@@ -89,7 +30,18 @@ class MessageWriter implements Runnable{
             }
         }
 
-        outgoingMessage.write("Finished");
+        write("Finished");
+    }
+
+    /** Retries until the message is written, then reports how many attempts timed out. */
+    private void write(String message){
+        int retries = 0;
+        while(!outgoingMessage.write(message)){
+            retries++;
+        }
+        if(retries>0){
+            System.out.println("Retried "+retries+" times: "+message);
+        }
     }
 }
 
@@ -103,7 +55,7 @@ class MessageReader implements Runnable{
     @Override
     public void run() {
         Random random = new Random();
-        String latestMessage = "";
+        List<String> latestMessages = List.of();
 
         do{
             try{
@@ -111,15 +63,15 @@ class MessageReader implements Runnable{
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
-            latestMessage = incomingMessage.read();
-            System.out.println(latestMessage);
-        }while (!latestMessage.equals("Finished"));
+            latestMessages = incomingMessage.readBatch(Integer.MAX_VALUE);
+            latestMessages.forEach(System.out::println);
+        }while (!latestMessages.contains("Finished"));
     }
 }
 
 public class Main {
     public static void main(String[] args) {
-        MessageRepository messageRepository = new MessageRepository();
+        MessageRepository messageRepository = new MessageRepository(4);
 
         Thread reader = new Thread(new MessageReader(messageRepository), "Reader");
         Thread writer = new Thread(new MessageWriter(messageRepository), "Writer");
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded FIFO of up to {@code capacity} messages between writers and readers; with the default
+ * capacity of one, writer and reader alternate. Both sides wait on a {@link Condition} instead of
+ * polling, and get at most {@code TIMEOUT} in total for acquiring the lock plus waiting for their turn.
+ * Timeouts are reported after the lock is released, so a slow console never holds up the other side.
+ */
+class MessageRepository{
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(3);
+
+    private final String[] messages;
+    private int head = 0;
+    private int count = 0;
+    private final Lock lock = new ReentrantLock();
+    private final Condition messageWritten = lock.newCondition();
+    private final Condition messageRead = lock.newCondition();
+
+    public MessageRepository() {
+        this(1);
+    }
+
+    public MessageRepository(int capacity) {
+        if(capacity<1){
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.messages = new String[capacity];
+    }
+
+    /** Returns the next message, or null if none arrived within the timeout. */
+    public String read() {
+        List<String> batch = readBatch(1);
+        return batch.isEmpty() ? null : batch.get(0);
+    }
+
+    /**
+     * Waits for at least one message, then removes up to {@code max} in the order they were written.
+     * Returns an empty list if none arrived within the timeout.
+     */
+    public List<String> readBatch(int max) {
+        long deadline = System.nanoTime() + TIMEOUT;
+        List<String> batch = null;
+        try{
+            if (lock.tryLock(TIMEOUT, TimeUnit.NANOSECONDS)) {
+                try {
+                    long remaining = TIMEOUT;
+                    while (count==0 && (remaining = deadline - System.nanoTime())>0) {
+                        messageWritten.awaitNanos(remaining);
+                    }
+                    if(count>0){
+                        batch = new ArrayList<>(Math.min(max, count));
+                        while(count>0 && batch.size()<max){
+                            batch.add(dequeue());
+                        }
+                        signal(messageRead, batch.size());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if(batch==null){
+                    System.out.println("** read timed out "+ lock);
+                    return List.of();
+                }
+                return batch;
+            } else {
+                System.out.println("** read blocked "+ lock);
+                return List.of();
+            }
+        }catch (InterruptedException ex){
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /** Returns false, leaving the repository unchanged, if there was no free slot within the timeout. */
+    public boolean write(String message)  {
+        return writeAll(List.of(message))==1;
+    }
+
+    /**
+     * Writes the messages in order, waking readers each time the repository fills up, and returns how many
+     * were written: fewer than {@code batch.size()} when the timeout ran out first.
+     */
+    public int writeAll(List<String> batch)  {
+        long deadline = System.nanoTime() + TIMEOUT;
+        int next = 0;
+        try{
+            if (lock.tryLock(TIMEOUT, TimeUnit.NANOSECONDS)) {
+                try {
+                    long remaining = TIMEOUT;
+                    while (next<batch.size() && remaining>0) {
+                        while (count==messages.length && (remaining = deadline - System.nanoTime())>0) {
+                            messageRead.awaitNanos(remaining);
+                        }
+                        int written = 0;
+                        while(count<messages.length && next<batch.size()){
+                            enqueue(batch.get(next++));
+                            written++;
+                        }
+                        signal(messageWritten, written);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if(next<batch.size()){
+                    System.out.println("** write timed out "+ lock);
+                }
+                return next;
+            } else {
+                System.out.println("** write blocked "+ lock);
+                return 0;
+            }
+        }catch (InterruptedException ex){
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void enqueue(String message){
+        messages[(head+count)%messages.length] = message;
+        count++;
+    }
+
+    private String dequeue(){
+        String message = messages[head];
+        messages[head] = null;
+        head = (head+1)%messages.length;
+        count--;
+        return message;
+    }
+
+    private static void signal(Condition condition, int times){
+        for(int i=0;i<times;i++){
+            condition.signal();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package warehouse.bench;
+
+import concurrency.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+import warehouse.LockOrderQueue;
+import warehouse.MonitorOrderQueue;
+import warehouse.Order;
+import warehouse.OrderBuffer;
+import warehouse.OrderQueue;
+import warehouse.RingOrderQueue;
+import warehouse.ShardRouting;
+import warehouse.ShardedOrderQueue;
+import warehouse.ShoeWarehouse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer/picker hand-off through each {@link OrderQueue} implementation, for the producer:picker
+ * ratios 1:1, 1:4, 4:4 and 16:16.
+ * <p>
+ * A JMH group stops its threads one by one, so a thread blocked in {@code put}/{@code take} could
+ * wait forever for a partner that already left. The benchmark therefore retries {@code offer}/{@code poll}
+ * and gives up once {@link Control#stopMeasurement} is set; the retry loop is what {@code put}/{@code take}
+ * do internally for the lock-free queues.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class OrderQueueBenchmark {
+    @Param({"monitor", "lock", "ring", "sharded", "buffer"})
+    public String queue;
+
+    @Param({"20", "1024"})
+    public int capacity;
+
+    private static final int DISTINCT_ORDERS = 4096;
+
+    private OrderQueue orders;
+    private Order[] pregenerated;
+
+    /** Each producer thread cycles through the pre-generated orders from its own offset. */
+    @State(Scope.Thread)
+    public static class Producer {
+        int next = ThreadLocalRandom.current().nextInt(DISTINCT_ORDERS);
+    }
+
+    @Setup
+    public void setup() {
+        orders = switch (queue) {
+            case "monitor" -> new MonitorOrderQueue(capacity);
+            case "lock" -> new LockOrderQueue(capacity);
+            case "ring" -> new RingOrderQueue(capacity, WaitStrategy.YIELDING);
+            case "sharded" -> new ShardedOrderQueue(capacity, ShardRouting.BY_ORDER_ID, WaitStrategy.YIELDING);
+            case "buffer" -> new OrderBuffer(capacity, WaitStrategy.YIELDING);
+            default -> throw new IllegalArgumentException("unknown queue: "+queue);
+        };
+        // varying ids and products, so BY_ORDER_ID spreads offers over every shard
+        pregenerated = new Order[DISTINCT_ORDERS];
+        for(int i=0;i<DISTINCT_ORDERS;i++){
+            pregenerated[i] = new Order(4_200_000L + i, ShoeWarehouse.PRODUCT_LIST[i % ShoeWarehouse.PRODUCT_LIST.length], 1);
+        }
+    }
+
+    @Benchmark
+    @Group("p1c1")
+    @GroupThreads(1)
+    public void receive1to1(Control control, Producer producer) {
+        receive(control, producer);
+    }
+
+    @Benchmark
+    @Group("p1c1")
+    @GroupThreads(1)
+    public void fulfill1to1(Control control, Blackhole blackhole) {
+        fulfill(control, blackhole);
+    }
+
+    @Benchmark
+    @Group("p1c4")
+    @GroupThreads(1)
+    public void receive1to4(Control control, Producer producer) {
+        receive(control, producer);
+    }
+
+    @Benchmark
+    @Group("p1c4")
+    @GroupThreads(4)
+    public void fulfill1to4(Control control, Blackhole blackhole) {
+        fulfill(control, blackhole);
+    }
+
+    @Benchmark
+    @Group("p4c4")
+    @GroupThreads(4)
+    public void receive4to4(Control control, Producer producer) {
+        receive(control, producer);
+    }
+
+    @Benchmark
+    @Group("p4c4")
+    @GroupThreads(4)
+    public void fulfill4to4(Control control, Blackhole blackhole) {
+        fulfill(control, blackhole);
+    }
+
+    @Benchmark
+    @Group("p16c16")
+    @GroupThreads(16)
+    public void receive16to16(Control control, Producer producer) {
+        receive(control, producer);
+    }
+
+    @Benchmark
+    @Group("p16c16")
+    @GroupThreads(16)
+    public void fulfill16to16(Control control, Blackhole blackhole) {
+        fulfill(control, blackhole);
+    }
+
+    private void receive(Control control, Producer producer) {
+        Order order = pregenerated[producer.next];
+        producer.next = (producer.next + 1) & (DISTINCT_ORDERS - 1);
+        while(!orders.offer(order) && !control.stopMeasurement){
+            Thread.yield();
+        }
+    }
+
+    private void fulfill(Control control, Blackhole blackhole) {
+        Order item;
+        while((item = orders.poll())==null && !control.stopMeasurement){
+            Thread.yield();
+        }
+        blackhole.consume(item);
+    }
+}
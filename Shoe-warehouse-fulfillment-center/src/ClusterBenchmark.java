@@ -0,0 +1,108 @@
+import warehouse.ClusterClient;
+import warehouse.Order;
+import warehouse.ShoeWarehouse;
+import warehouse.WarehouseNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts 1, 2, ... up to {@code maxNodes} {@link WarehouseNode} JVMs on loopback and drives each
+ * cluster with the same producers for the same time, printing acknowledged orders per second so the
+ * scaling across processes is visible.
+ * <pre>
+ *     java ClusterBenchmark [maxNodes] [producers] [seconds] [batchSize] [pickersPerNode]
+ * </pre>
+ */
+public class ClusterBenchmark {
+    public static void main(String[] args) throws Exception {
+        int maxNodes = intArg(args, 0, 4);
+        int producers = intArg(args, 1, 4);
+        int seconds = intArg(args, 2, 5);
+        int batchSize = intArg(args, 3, 256);
+        int pickers = intArg(args, 4, 2);
+
+        for(int nodes=1; nodes<=maxNodes; nodes++){
+            List<Process> processes = new ArrayList<>();
+            try {
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for(int i=0;i<nodes;i++){
+                    Process process = startNode(pickers);
+                    processes.add(process);
+                    addresses.add(new InetSocketAddress("127.0.0.1", awaitReady(process)));
+                }
+                run(addresses, producers, seconds, batchSize);
+            } finally {
+                for(Process process: processes){
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+        }
+    }
+
+    private static void run(List<InetSocketAddress> nodes, int producers, int seconds, int batchSize)
+            throws InterruptedException {
+        AtomicLong acknowledged = new AtomicLong();
+        long deadline = System.nanoTime() + seconds*1_000_000_000L;
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for(int p=0;p<producers;p++){
+            long firstId = (long) p << 40;
+            Thread producer = new Thread(()->{
+                try(ClusterClient client = new ClusterClient(nodes, batchSize)){
+                    long id = firstId;
+                    while(System.nanoTime()<deadline){
+                        for(int i=0;i<batchSize;i++, id++){
+                            client.submit(new Order(id,
+                                    ShoeWarehouse.PRODUCT_LIST[(int) (id % ShoeWarehouse.PRODUCT_LIST.length)], 1));
+                        }
+                    }
+                    client.drain();
+                    acknowledged.addAndGet(client.getAcknowledged());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }, "producer-"+p);
+            producer.start();
+            threads.add(producer);
+        }
+        for(Thread thread: threads){
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("nodes=%d producers=%d batch=%d | %d orders in %d ms | %.0f orders/s%n",
+                nodes.size(), producers, batchSize, acknowledged.get(), elapsed/1_000_000,
+                acknowledged.get()*1e9/elapsed);
+    }
+
+    private static Process startNode(int pickers) throws IOException {
+        return new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                WarehouseNode.class.getName(), "0", String.valueOf(pickers))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static int awaitReady(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line;
+        while((line = reader.readLine())!=null){
+            if(line.startsWith("READY ")){
+                return Integer.parseInt(line.substring("READY ".length()));
+            }
+        }
+        throw new IOException("warehouse node exited before it was ready");
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length>index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
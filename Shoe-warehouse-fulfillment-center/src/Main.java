@@ -1,53 +1,36 @@
+import concurrency.WaitStrategy;
+import logging.AsyncLogger;
+import warehouse.ConcurrentLongHashSet;
+import warehouse.Inventory;
+import warehouse.LockOrderQueue;
+import warehouse.Order;
+import warehouse.OrderQueue;
+import warehouse.RingOrderQueue;
+import warehouse.ShoeWarehouse;
+import warehouse.WarehouseMetrics;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-
-record Order(long orderId, String item, int qty){};
-
-class ShoeWarehouse{
-    private List<Order> shippingItems;
-    final static String[] PRODUCT_LIST = {"Running shoes", "Sandles", "Boots", "Slippers", "High Tops"};
-
-    public ShoeWarehouse() {
-        this.shippingItems = new ArrayList<>();
-    }
-
-    public synchronized void receiveOrder(Order item){
-        while(shippingItems.size()>20) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-            shippingItems.add(item);
-            System.out.println("Incoming: "+item);
-            notifyAll();
-    }
-
-    public synchronized Order fulfillOrder(){
-        while(shippingItems.isEmpty()) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-            Order item = shippingItems.remove(0);
-            System.out.println(Thread.currentThread().getName() + " Fulfilled: "+item);
-            notifyAll();
-            return item;
-    }
-}
-
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     private static final Random random = new Random();
     public static void main(String[] args) {
-        ShoeWarehouse warehouse = new ShoeWarehouse();
-        Thread producerThread = new Thread(()->{
+        boolean virtual = args.length>0 && args[0].equals("virtual");
+        OrderQueue queue = virtual
+                ? new LockOrderQueue(ShoeWarehouse.CAPACITY)
+                : new RingOrderQueue(ShoeWarehouse.CAPACITY, WaitStrategy.PARKING);
+        Thread.Builder producers = virtual ? Thread.ofVirtual().name("producer-", 0) : Thread.ofPlatform().name("producer-", 0);
+        Thread.Builder pickers = virtual ? Thread.ofVirtual().name("picker-", 0) : Thread.ofPlatform().name("picker-", 0);
+
+        Inventory inventory = new Inventory();
+        for(String product: ShoeWarehouse.PRODUCT_LIST){
+            inventory.restock(product, 5);
+        }
+        ShoeWarehouse warehouse = new ShoeWarehouse(queue, new WarehouseMetrics(), inventory);
+        warehouse.setDuplicateFilter(new ConcurrentLongHashSet(100_000, 10, TimeUnit.MINUTES));
+        producers.start(()->{
             for(int j=0;j<10;j++){
                 warehouse.receiveOrder(new Order(
                         random.nextLong(1000000, 9000000),
@@ -56,18 +39,26 @@ public class Main {
             }
         });
 
-        producerThread.start();
-
 
+        List<Thread> consumers = new ArrayList<>();
         for(int i=0;i<2;i++){
-            Thread consumerThread = new Thread(()->{
+            Thread consumerThread = pickers.start(()->{
                 for(int j=0;j<5;j++){
+                    // null when the inventory had to back-order it; those are logged from drainBackorders() below
                     Order item = warehouse.fulfillOrder();
                 }
             });
-            consumerThread.start();
+            consumers.add(consumerThread);
         }
 
-
+        try{
+            for(Thread consumer: consumers){
+                consumer.join();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        AsyncLogger.log("Metrics: "+warehouse.getMetrics().snapshot());
+        AsyncLogger.log("Backorders: "+warehouse.drainBackorders());
     }
-}
\ No newline at end of file
+}
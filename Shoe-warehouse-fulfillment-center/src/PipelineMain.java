@@ -0,0 +1,47 @@
+import logging.AsyncLogger;
+import warehouse.FulfillmentPipeline;
+import warehouse.Inventory;
+import warehouse.Order;
+import warehouse.ShoeWarehouse;
+import warehouse.StageStats;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs orders through the staged pipeline with one thread per stage, prints the per-stage numbers,
+ * then gives the pick stage more threads at runtime and runs a second round.
+ */
+public class PipelineMain {
+    private static final Random random = new Random();
+
+    public static void main(String[] args) throws InterruptedException {
+        Inventory inventory = new Inventory();
+        for(String product: ShoeWarehouse.PRODUCT_LIST){
+            inventory.restock(product, 1_000_000);
+        }
+        LongAdder shipped = new LongAdder();
+        FulfillmentPipeline pipeline = new FulfillmentPipeline(inventory, 1, 64, order -> shipped.increment());
+
+        for(int round=0;round<2;round++){
+            for(int j=0;j<500;j++){
+                pipeline.submit(new Order(
+                        random.nextLong(1000000, 9000000),
+                        ShoeWarehouse.PRODUCT_LIST[random.nextInt(0, 5)],
+                        random.nextInt(1, 4)));
+                if(j%50==0){
+                    Thread.sleep(1);
+                }
+            }
+            for(StageStats stats: pipeline.stats()){
+                AsyncLogger.log(stats.toString());
+            }
+            if(round==0){
+                AsyncLogger.log("Growing the pick stage");
+                pipeline.resize("pick", 4);
+            }
+        }
+        pipeline.shutdown();
+        AsyncLogger.log("Shipped "+shipped.sum()+", end-to-end p99 us "+pipeline.endToEndLatency().percentile(99)/1e3);
+    }
+}
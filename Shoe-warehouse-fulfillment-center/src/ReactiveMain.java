@@ -0,0 +1,77 @@
+import concurrency.WaitStrategy;
+import logging.AsyncLogger;
+import warehouse.Order;
+import warehouse.OrderFlow;
+import warehouse.RingOrderQueue;
+import warehouse.ShoeWarehouse;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * The warehouse demo on {@link OrderFlow}: a {@link SubmissionPublisher} stands in for non-blocking
+ * intake code and two pickers pull orders five at a time. No thread ever waits on the warehouse.
+ */
+public class ReactiveMain {
+    private static final Random random = new Random();
+
+    public static void main(String[] args) throws InterruptedException {
+        ShoeWarehouse warehouse = new ShoeWarehouse(new RingOrderQueue(ShoeWarehouse.CAPACITY, WaitStrategy.PARKING));
+        OrderFlow flow = new OrderFlow(warehouse);
+        int orders = 100;
+        CountDownLatch shipped = new CountDownLatch(orders);
+        CountDownLatch done = new CountDownLatch(2);
+
+        for(int i=0;i<2;i++){
+            String name = "picker-"+i;
+            flow.subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+                private int left;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    left = 5;
+                    subscription.request(5);
+                }
+
+                @Override
+                public void onNext(Order item) {
+                    AsyncLogger.log(name+" picked "+item);
+                    shipped.countDown();
+                    if(--left==0){
+                        left = 5;
+                        subscription.request(5);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    AsyncLogger.log(name+" failed: "+throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    AsyncLogger.log(name+" done");
+                    done.countDown();
+                }
+            });
+        }
+
+        try(SubmissionPublisher<Order> intake = new SubmissionPublisher<>()){
+            intake.subscribe(flow.intake());
+            for(int j=0;j<orders;j++){
+                intake.submit(new Order(
+                        random.nextLong(1000000, 9000000),
+                        ShoeWarehouse.PRODUCT_LIST[random.nextInt(0, 5)],
+                        random.nextInt(1, 4)));
+            }
+        }
+        flow.complete();
+        shipped.await();
+        done.await();
+        AsyncLogger.log("Shipped "+orders+" orders");
+    }
+}
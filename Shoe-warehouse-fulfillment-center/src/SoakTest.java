@@ -0,0 +1,66 @@
+import concurrency.WaitStrategy;
+import warehouse.ArrivalPattern;
+import warehouse.LoadConfig;
+import warehouse.LoadGenerator;
+import warehouse.LoadReport;
+import warehouse.LockOrderQueue;
+import warehouse.MonitorOrderQueue;
+import warehouse.OrderBuffer;
+import warehouse.OrderQueue;
+import warehouse.RingOrderQueue;
+import warehouse.ShardRouting;
+import warehouse.ShardedOrderQueue;
+import warehouse.ShoeWarehouse;
+import warehouse.WarehouseMetrics;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Repeatable load/soak run of the fulfillment center. Every setting is a {@code key=value} argument:
+ * <pre>
+ *     java SoakTest rate=0 pattern=POISSON zipf=1.0 producers=4 consumers=4 seconds=30 batch=64 \
+ *                   queue=ring capacity=4096 wait=YIELDING runs=3 seed=42
+ * </pre>
+ * {@code rate=0} runs open loop as fast as the warehouse accepts; {@code queue} is one of
+ * monitor, lock, ring, sharded or buffer. Each run builds a fresh warehouse and prints one report line.
+ */
+public class SoakTest {
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> settings = new HashMap<>();
+        for(String arg: args){
+            String[] pair = arg.split("=", 2);
+            settings.put(pair[0], pair.length>1 ? pair[1] : "");
+        }
+
+        LoadConfig config = new LoadConfig(
+                Double.parseDouble(settings.getOrDefault("rate", "0")),
+                ArrivalPattern.valueOf(settings.getOrDefault("pattern", "POISSON")),
+                Double.parseDouble(settings.getOrDefault("zipf", "1.0")),
+                Integer.parseInt(settings.getOrDefault("producers", "4")),
+                Integer.parseInt(settings.getOrDefault("consumers", "4")),
+                Duration.ofSeconds(Long.parseLong(settings.getOrDefault("seconds", "10"))),
+                Integer.parseInt(settings.getOrDefault("batch", "64")),
+                Long.parseLong(settings.getOrDefault("seed", "42")));
+        int runs = Integer.parseInt(settings.getOrDefault("runs", "1"));
+        int capacity = Integer.parseInt(settings.getOrDefault("capacity", "4096"));
+        WaitStrategy wait = WaitStrategy.valueOf(settings.getOrDefault("wait", "YIELDING"));
+        String queueName = settings.getOrDefault("queue", "ring");
+
+        for(int run=1; run<=runs; run++){
+            OrderQueue queue = switch (queueName) {
+                case "monitor" -> new MonitorOrderQueue(capacity);
+                case "lock" -> new LockOrderQueue(capacity);
+                case "ring" -> new RingOrderQueue(capacity, wait);
+                case "sharded" -> new ShardedOrderQueue(capacity, ShardRouting.BY_PRODUCT, wait);
+                case "buffer" -> new OrderBuffer(capacity, wait);
+                default -> throw new IllegalArgumentException("unknown queue: "+queueName);
+            };
+            ShoeWarehouse warehouse = new ShoeWarehouse(queue, new WarehouseMetrics());
+            warehouse.setLogging(false);
+            LoadReport report = new LoadGenerator(warehouse, config).run();
+            System.out.println("run "+run+" "+queueName+": "+report);
+        }
+    }
+}
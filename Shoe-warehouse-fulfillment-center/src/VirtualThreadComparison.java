@@ -0,0 +1,109 @@
+import warehouse.LockOrderQueue;
+import warehouse.Order;
+import warehouse.OrderQueue;
+import warehouse.ShoeWarehouse;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the same warehouse workload with one platform thread per picker and with one virtual
+ * thread per picker, each in its own JVM so memory figures don't mix, and prints both results.
+ * <pre>
+ *     java VirtualThreadComparison [pickers] [ordersPerPicker] [producers] [capacity]
+ *     java VirtualThreadComparison platform|virtual [pickers] [ordersPerPicker] [producers] [capacity]
+ * </pre>
+ * Both modes use {@link LockOrderQueue}, so the only difference is the kind of thread: the original
+ * {@code synchronized} queue would pin every blocked virtual picker to a carrier, and its
+ * {@code notifyAll()} wakes all 10k pickers per order in either mode.
+ */
+public class VirtualThreadComparison {
+    public static void main(String[] args) throws Exception {
+        if(args.length>0 && (args[0].equals("platform") || args[0].equals("virtual"))){
+            run(args[0].equals("virtual"), intArg(args, 1, 10_000), intArg(args, 2, 20),
+                    intArg(args, 3, 8), intArg(args, 4, ShoeWarehouse.CAPACITY));
+            return;
+        }
+
+        for(String mode: new String[]{"platform", "virtual"}){
+            List<String> command = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    VirtualThreadComparison.class.getName(), mode));
+            command.addAll(List.of(args));
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            if(process.waitFor()!=0){
+                System.out.println(mode+" run failed with exit code "+process.exitValue());
+            }
+        }
+    }
+
+    private static void run(boolean virtual, int pickers, int ordersPerPicker, int producers, int capacity)
+            throws InterruptedException {
+        OrderQueue queue = new LockOrderQueue(capacity);
+        ThreadFactory factory = virtual
+                ? Thread.ofVirtual().name("picker-", 0).factory()
+                : Thread.ofPlatform().name("picker-", 0).stackSize(256 * 1024).factory();
+        ShoeWarehouse warehouse = new ShoeWarehouse(queue);
+        warehouse.setLogging(false);
+
+        long totalOrders = (long) pickers * ordersPerPicker;
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>(pickers + producers);
+        for(int i=0;i<pickers;i++){
+            Thread picker = factory.newThread(()->{
+                for(int j=0;j<ordersPerPicker;j++){
+                    warehouse.fulfillOrder();
+                }
+            });
+            picker.start();
+            threads.add(picker);
+        }
+        for(int p=0;p<producers;p++){
+            long from = totalOrders*p/producers;
+            long to = totalOrders*(p+1)/producers;
+            Thread producer = factory.newThread(()->{
+                for(long id=from; id<to; id++){
+                    warehouse.receiveOrder(new Order(id,
+                            ShoeWarehouse.PRODUCT_LIST[(int) (id % ShoeWarehouse.PRODUCT_LIST.length)], 1));
+                }
+            });
+            producer.start();
+            threads.add(producer);
+        }
+        long started = System.nanoTime();
+        for(Thread thread: threads){
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-8s pickers=%d orders=%d | start-up %d ms | total %d ms | %.0f orders/s | peak threads %d | heap used %d MB | peak RSS %s%n",
+                virtual ? "virtual" : "platform", pickers, totalOrders,
+                (started - start)/1_000_000, elapsed/1_000_000, totalOrders*1e9/elapsed,
+                ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory())/(1024*1024),
+                peakRss());
+    }
+
+    private static String peakRss() {
+        try {
+            for(String line: Files.readAllLines(Path.of("/proc/self/status"))){
+                if(line.startsWith("VmHWM:")){
+                    return line.substring("VmHWM:".length()).trim();
+                }
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // not Linux
+        }
+        return "n/a";
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length>index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
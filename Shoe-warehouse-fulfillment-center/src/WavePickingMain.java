@@ -0,0 +1,88 @@
+import concurrency.WaitStrategy;
+import logging.AsyncLogger;
+import warehouse.Order;
+import warehouse.RingOrderQueue;
+import warehouse.ShoeWarehouse;
+import warehouse.WavePlanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wave picking: producers keep receiving orders while a planner thread snapshots up to
+ * {@code snapshot} pending orders every 50 ms, sorts them by product and quantity and releases
+ * waves of {@code waveSize} to the pickers.
+ * <pre>
+ *     java WavePickingMain [orders] [snapshot] [waveSize] [pickers]
+ * </pre>
+ */
+public class WavePickingMain {
+    public static void main(String[] args) throws InterruptedException {
+        int orders = args.length>0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int snapshot = args.length>1 ? Integer.parseInt(args[1]) : 200_000;
+        int waveSize = args.length>2 ? Integer.parseInt(args[2]) : 500;
+        int pickers = args.length>3 ? Integer.parseInt(args[3]) : 4;
+
+        ShoeWarehouse warehouse = new ShoeWarehouse(new RingOrderQueue(Integer.highestOneBit(snapshot)*2, WaitStrategy.PARKING));
+        warehouse.setLogging(false);
+        WavePlanner planner = new WavePlanner(waveSize);
+
+        List<Order> pending = randomOrders(new Random(1), 0, snapshot);
+        warehouse.receiveOrders(pending);
+        long start = System.nanoTime();
+        int planned = warehouse.planWaves(planner, snapshot);
+        AsyncLogger.printf("Sorted %d pending orders into %d waves in %.1f ms%n",
+                snapshot, planned, (System.nanoTime()-start)/1e6);
+        LongAdder shipped = new LongAdder();
+        while(warehouse.getWaveBacklog()>0){
+            shipped.add(warehouse.fulfillWave().size());
+        }
+
+        start = System.nanoTime();
+        warehouse.startWavePlanning(planner, snapshot, 50, TimeUnit.MILLISECONDS);
+        List<Thread> threads = new ArrayList<>();
+        for(int i=0;i<pickers;i++){
+            Thread picker = new Thread(()->{
+                while(true){
+                    List<Order> wave = warehouse.fulfillWave();
+                    shipped.add(wave.size());
+                }
+            }, "picker-"+i);
+            picker.setDaemon(true);
+            picker.start();
+        }
+        for(int p=0;p<2;p++){
+            int producer = p;
+            Thread thread = new Thread(()->{
+                Random random = new Random(producer+2);
+                for(int from=producer*orders/2, end=(producer+1)*orders/2; from<end; from+=1000){
+                    warehouse.receiveOrders(randomOrders(random, from, Math.min(1000, end-from)));
+                }
+            }, "producer-"+p);
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread: threads){
+            thread.join();
+        }
+        while(shipped.sum()<snapshot+(long) orders){
+            Thread.sleep(10);
+        }
+        warehouse.stopWavePlanning();
+        AsyncLogger.printf("Shipped %d orders in waves while receiving, %.0f orders/s%n",
+                orders, orders*1e9/(System.nanoTime()-start));
+    }
+
+    private static List<Order> randomOrders(Random random, int firstId, int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for(int i=0;i<count;i++){
+            orders.add(new Order(firstId+i,
+                    ShoeWarehouse.PRODUCT_LIST[random.nextInt(ShoeWarehouse.PRODUCT_LIST.length)],
+                    1+random.nextInt(10)));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,32 @@
+package warehouse;
+
+import java.util.SplittableRandom;
+
+/** Gap between two generated orders, for an average rate given as nanoseconds per order. */
+public enum ArrivalPattern {
+    /** Evenly spaced orders. */
+    CONSTANT {
+        @Override
+        long nextGapNanos(double meanGapNanos, long sequence, SplittableRandom random) {
+            return Math.round(meanGapNanos);
+        }
+    },
+    /** Independent arrivals: exponentially distributed gaps. */
+    POISSON {
+        @Override
+        long nextGapNanos(double meanGapNanos, long sequence, SplittableRandom random) {
+            return Math.round(-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+    },
+    /** Bursts of {@value #BURST} back-to-back orders followed by a pause that keeps the average rate. */
+    BURSTY {
+        @Override
+        long nextGapNanos(double meanGapNanos, long sequence, SplittableRandom random) {
+            return sequence % BURST == BURST - 1 ? Math.round(meanGapNanos * BURST) : 0;
+        }
+    };
+
+    static final int BURST = 1000;
+
+    abstract long nextGapNanos(double meanGapNanos, long sequence, SplittableRandom random);
+}
@@ -0,0 +1,166 @@
+package warehouse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends orders to a cluster of {@link WarehouseNode}s, routing each by consistent hashing of its
+ * {@code orderId}. Orders for a node are batched into one frame of up to {@code batchSize} orders;
+ * all sockets are non-blocking and share one selector, and the client only waits when a node's
+ * outbound buffer is full. One client per producer thread; instances are not thread-safe.
+ */
+public class ClusterClient implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Selector selector;
+    private final List<Connection> connections = new ArrayList<>();
+    private final ConsistentHashRing<Connection> ring;
+    private final int batchSize;
+
+    private static final class Connection {
+        final InetSocketAddress address;
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ByteBuffer acks = ByteBuffer.allocateDirect(64 * 1024);
+        int frameStart = -1;
+        int frameOrders;
+        long sent;
+        long acked;
+
+        Connection(InetSocketAddress address, SocketChannel channel, SelectionKey key) {
+            this.address = address;
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    public ClusterClient(List<InetSocketAddress> nodes, int batchSize) throws IOException {
+        if(batchSize<1 || OrderCodec.HEADER_SIZE + batchSize*OrderCodec.ORDER_SIZE > BUFFER_SIZE){
+            throw new IllegalArgumentException("batchSize out of range: "+batchSize);
+        }
+        this.batchSize = batchSize;
+        this.selector = Selector.open();
+        for(InetSocketAddress node: nodes){
+            SocketChannel channel = SocketChannel.open(node);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            Connection connection = new Connection(node, channel, key);
+            key.attach(connection);
+            connections.add(connection);
+        }
+        this.ring = new ConsistentHashRing<>(connections,
+                connection-> connection.address.getHostString()+":"+connection.address.getPort(), 128);
+    }
+
+    public void submit(Order order) throws IOException {
+        Connection connection = ring.nodeFor(order.orderId());
+        if(connection.frameStart<0){
+            while(connection.out.remaining() < OrderCodec.HEADER_SIZE + batchSize*OrderCodec.ORDER_SIZE){
+                pump(connection);
+            }
+            connection.frameStart = connection.out.position();
+            connection.out.putInt(0);
+        }
+        OrderCodec.putOrder(connection.out, order);
+        if(++connection.frameOrders==batchSize){
+            seal(connection);
+            flush(connection);
+        }
+    }
+
+    /** Sends every partial batch and waits until all nodes acknowledged everything submitted. */
+    public void drain() throws IOException {
+        for(Connection connection: connections){
+            seal(connection);
+            flush(connection);
+        }
+        for(Connection connection: connections){
+            while(connection.acked<connection.sent){
+                pump(connection);
+            }
+        }
+    }
+
+    public long getAcknowledged() {
+        long acked = 0;
+        for(Connection connection: connections){
+            acked+=connection.acked;
+        }
+        return acked;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(Connection connection: connections){
+            connection.channel.close();
+        }
+        selector.close();
+    }
+
+    private void seal(Connection connection) {
+        if(connection.frameStart<0){
+            return;
+        }
+        connection.out.putInt(connection.frameStart, connection.frameOrders);
+        connection.sent+=connection.frameOrders;
+        connection.frameStart = -1;
+        connection.frameOrders = 0;
+    }
+
+    /** Writes what is sealed without blocking; a frame still being filled stays in the buffer. */
+    private void flush(Connection connection) throws IOException {
+        int limit = connection.frameStart<0 ? connection.out.position() : connection.frameStart;
+        if(limit==0){
+            return;
+        }
+        ByteBuffer sealed = connection.out.duplicate();
+        sealed.flip().limit(limit);
+        connection.channel.write(sealed);
+        int written = sealed.position();
+        if(written>0){
+            connection.out.flip().position(written);
+            connection.out.compact();
+            if(connection.frameStart>=0){
+                connection.frameStart-=written;
+            }
+        }
+        boolean pending = written<limit;
+        connection.key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /** Waits for the network once, then writes and reads acknowledgements on every ready connection. */
+    private void pump(Connection waitingFor) throws IOException {
+        flush(waitingFor);
+        selector.select(10);
+        for(SelectionKey key: selector.selectedKeys()){
+            Connection connection = (Connection) key.attachment();
+            if(key.isWritable()){
+                flush(connection);
+            }
+            if(key.isReadable()){
+                readAcks(connection);
+            }
+        }
+        selector.selectedKeys().clear();
+    }
+
+    private void readAcks(Connection connection) throws IOException {
+        if(connection.channel.read(connection.acks)<0){
+            throw new IOException("warehouse node closed the connection");
+        }
+        connection.acks.flip();
+        while(connection.acks.remaining()>=OrderCodec.ACK_SIZE){
+            connection.acked+=connection.acks.getInt();
+        }
+        connection.acks.compact();
+    }
+}
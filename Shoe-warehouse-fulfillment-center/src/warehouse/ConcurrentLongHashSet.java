@@ -0,0 +1,201 @@
+package warehouse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free set of {@code long}s with bounded memory, used to remember recently seen order ids.
+ * <p>
+ * Keys are stored unboxed in an open-addressing table ({@link AtomicLongArray}, linear probing,
+ * CAS into empty slots) so adding an id never allocates. Memory is bounded by keeping two
+ * generations of tables: new keys go into the current one, lookups check both, and when the
+ * current generation is full or older than the time-to-live it becomes the previous one and the
+ * old previous is dropped. A key is therefore remembered for at least one full generation, i.e.
+ * {@code maxEntries} later additions or {@code ttl}, whichever comes first.
+ * <p>
+ * {@link #remove} marks the key's slot as removed rather than emptying it, so probing stays correct;
+ * a removed key still uses up its slot until its generation is dropped.
+ */
+public class ConcurrentLongHashSet {
+    private enum Result {ADDED, PRESENT, FULL}
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private static final class Generation {
+        private final AtomicLongArray keys;
+        private final int mask;
+        private final int maxEntries;
+        private final AtomicInteger size = new AtomicInteger();
+        // the two keys that double as slot markers are kept in flags instead
+        private final AtomicBoolean hasZero = new AtomicBoolean();
+        private final AtomicBoolean hasMinValue = new AtomicBoolean();
+        private final long createdNanos = System.nanoTime();
+
+        Generation(int maxEntries) {
+            int slots = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+            this.keys = new AtomicLongArray(slots);
+            this.mask = slots - 1;
+            this.maxEntries = maxEntries;
+        }
+
+        private AtomicBoolean flagFor(long key) {
+            return key==EMPTY ? hasZero : key==REMOVED ? hasMinValue : null;
+        }
+
+        boolean contains(long key) {
+            AtomicBoolean flag = flagFor(key);
+            if(flag!=null){
+                return flag.get();
+            }
+            int index = slotOf(key);
+            for(int probes=0;probes<=mask;probes++){
+                long existing = keys.get(index);
+                if(existing==key){
+                    return true;
+                }
+                if(existing==EMPTY){
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        Result add(long key) {
+            AtomicBoolean flag = flagFor(key);
+            if(flag!=null){
+                return flag.compareAndSet(false, true) ? Result.ADDED : Result.PRESENT;
+            }
+            int index = slotOf(key);
+            for(int probes=0;probes<=mask;probes++){
+                long existing = keys.get(index);
+                if(existing==EMPTY){
+                    if(size.get()>=maxEntries){
+                        return Result.FULL;
+                    }
+                    if(keys.compareAndSet(index, EMPTY, key)){
+                        size.incrementAndGet();
+                        return Result.ADDED;
+                    }
+                    existing = keys.get(index);
+                }
+                if(existing==key){
+                    return Result.PRESENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return Result.FULL;
+        }
+
+        boolean remove(long key) {
+            AtomicBoolean flag = flagFor(key);
+            if(flag!=null){
+                return flag.compareAndSet(true, false);
+            }
+            int index = slotOf(key);
+            for(int probes=0;probes<=mask;probes++){
+                long existing = keys.get(index);
+                if(existing==key){
+                    return keys.compareAndSet(index, key, REMOVED);
+                }
+                if(existing==EMPTY){
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        int flags() {
+            return (hasZero.get() ? 1 : 0) + (hasMinValue.get() ? 1 : 0);
+        }
+
+        private int slotOf(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /** Keeps ids until {@code maxEntries} newer ids have been added. */
+    public ConcurrentLongHashSet(int maxEntries) {
+        this(maxEntries, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /** Keeps ids until {@code maxEntries} newer ids have been added or {@code ttl} has passed; a ttl of 0 never expires. */
+    public ConcurrentLongHashSet(int maxEntries, long ttl, TimeUnit unit) {
+        if(maxEntries<1){
+            throw new IllegalArgumentException("maxEntries must be positive: "+maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.current = new Generation(maxEntries);
+    }
+
+    /** Returns true if the key was not in the set and has been added, false if it was already present. */
+    public boolean add(long key) {
+        while(true){
+            Generation generation = current;
+            if(expired(generation)){
+                rotate(generation);
+                continue;
+            }
+            Generation older = previous;
+            if(older!=null && older.contains(key)){
+                return false;
+            }
+            switch (generation.add(key)) {
+                case ADDED:
+                    return true;
+                case PRESENT:
+                    return false;
+                default:
+                    rotate(generation);
+            }
+        }
+    }
+
+    public boolean contains(long key) {
+        Generation generation = current;
+        if(generation.contains(key)){
+            return true;
+        }
+        Generation older = previous;
+        return older!=null && !expired(generation) && older.contains(key);
+    }
+
+    /** Forgets the key; returns false if it was not in the set. */
+    public boolean remove(long key) {
+        Generation generation = current;
+        Generation older = previous;
+        boolean removed = generation.remove(key);
+        return (older!=null && older.remove(key)) || removed;
+    }
+
+    /** Number of keys remembered, counting removed ones until their generation is dropped; an estimate while other threads are adding. */
+    public int size() {
+        Generation older = previous;
+        return current.size.get() + current.flags()
+                + (older==null ? 0 : older.size.get() + older.flags());
+    }
+
+    private boolean expired(Generation generation) {
+        return ttlNanos>0 && System.nanoTime() - generation.createdNanos >= ttlNanos;
+    }
+
+    private synchronized void rotate(Generation full) {
+        if(current!=full){
+            return;
+        }
+        boolean stale = ttlNanos>0 && System.nanoTime() - full.createdNanos >= 2*ttlNanos;
+        previous = stale ? null : full;
+        current = new Generation(maxEntries);
+    }
+}
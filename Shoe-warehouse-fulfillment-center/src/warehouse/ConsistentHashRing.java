@@ -0,0 +1,75 @@
+package warehouse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Maps order ids to nodes with consistent hashing: every node is placed on a 64-bit ring at
+ * {@code replicas} pseudo-random points and an id belongs to the first node point at or after its
+ * own hash. The points are hashed from each node's key (an address, say), not from its position
+ * in the list, so removing a node moves only the ids that node owned and adding one moves only the
+ * ids the new node takes over; every other id keeps its node.
+ * <p>
+ * The ring is a sorted {@code long[]} searched with binary search, so a lookup never allocates.
+ */
+public class ConsistentHashRing<T> {
+    private final long[] points;
+    private final Object[] owners;
+
+    public ConsistentHashRing(List<T> nodes, Function<? super T, String> nodeKey, int replicas) {
+        if(nodes.isEmpty()){
+            throw new IllegalArgumentException("the ring needs at least one node");
+        }
+        if(replicas<1){
+            throw new IllegalArgumentException("replicas must be positive: "+replicas);
+        }
+        TreeMap<Long, T> ring = new TreeMap<>();
+        for(T node: nodes){
+            long keyHash = hash(nodeKey.apply(node));
+            for(int replica=0;replica<replicas;replica++){
+                ring.put(mix(keyHash + replica), node);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new Object[ring.size()];
+        int i = 0;
+        for(Map.Entry<Long, T> entry: ring.entrySet()){
+            points[i] = entry.getKey();
+            owners[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T nodeFor(long key) {
+        int index = Arrays.binarySearch(points, mix(key));
+        if(index<0){
+            index = -index - 1;
+            if(index==points.length){
+                index = 0;
+            }
+        }
+        return (T) owners[index];
+    }
+
+    /** 64-bit FNV-1a of the key's UTF-8 bytes. */
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for(byte b: key.getBytes(StandardCharsets.UTF_8)){
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,83 @@
+package warehouse;
+
+import logging.AsyncLogger;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Staged (SEDA) fulfillment: intake, validate, pick and ship each run on their own bounded queue and
+ * thread pool, so {@link #stats()} shows which stage is the bottleneck and {@link #resize} can give
+ * that stage more threads while the pipeline runs.
+ * <ul>
+ *     <li>intake stamps the receive time used for the end-to-end latency,</li>
+ *     <li>validate drops orders with an unknown product or a non-positive quantity,</li>
+ *     <li>pick reserves the quantity from the inventory, if there is one, and back-orders what it can't,</li>
+ *     <li>ship hands the order to the {@code shipped} callback.</li>
+ * </ul>
+ */
+public class FulfillmentPipeline {
+    private final Stage<Order, Order> intake;
+    private final Stage<Order, Order> validate;
+    private final Stage<Order, Order> pick;
+    private final Stage<Order, Order> ship;
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+
+    public FulfillmentPipeline(Inventory inventory, int threadsPerStage, int queueCapacity, Consumer<Order> shipped) {
+        ship = new Stage<>("ship", threadsPerStage, queueCapacity, order -> {
+            shipped.accept(order);
+            endToEnd.record(System.nanoTime() - order.receivedNanos());
+            return order;
+        }, null);
+        pick = new Stage<>("pick", threadsPerStage, queueCapacity, order -> {
+            if(inventory!=null && !inventory.reserve(order.item(), order.qty())){
+                AsyncLogger.log(Thread.currentThread().getName()+" Backordered: "+order);
+                return null;
+            }
+            return order;
+        }, ship::submit);
+        validate = new Stage<>("validate", threadsPerStage, queueCapacity, order -> {
+            if(ShoeWarehouse.productIndex(order.item())<0 || order.qty()<=0){
+                AsyncLogger.log(Thread.currentThread().getName()+" Invalid: "+order);
+                return null;
+            }
+            return order;
+        }, pick::submit);
+        intake = new Stage<>("intake", threadsPerStage, queueCapacity,
+                order -> order.received(System.nanoTime()), validate::submit);
+    }
+
+    /** Queues the order at the intake stage; waits while the intake queue is full. */
+    public void submit(Order order) {
+        intake.submit(order);
+    }
+
+    public Stage<Order, Order> stage(String name) {
+        for(Stage<Order, Order> stage: List.of(intake, validate, pick, ship)){
+            if(stage.name().equals(name)){
+                return stage;
+            }
+        }
+        throw new IllegalArgumentException("no stage named "+name);
+    }
+
+    public void resize(String stageName, int threads) {
+        stage(stageName).resize(threads);
+    }
+
+    public List<StageStats> stats() {
+        return List.of(intake.stats(), validate.stats(), pick.stats(), ship.stats());
+    }
+
+    public LatencyHistogram endToEndLatency() {
+        return endToEnd;
+    }
+
+    /** Lets every submitted order run through all stages, then stops the threads. */
+    public void shutdown() throws InterruptedException {
+        intake.shutdown();
+        validate.shutdown();
+        pick.shutdown();
+        ship.shutdown();
+    }
+}
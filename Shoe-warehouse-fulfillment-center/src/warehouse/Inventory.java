@@ -0,0 +1,73 @@
+package warehouse;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Units on hand per entry of {@link ShoeWarehouse#PRODUCT_LIST}. Fulfillment reserves an order's
+ * {@code qty} atomically; each product's stock is a {@link StripedStock}, so there is no global lock
+ * and no single hot counter even when every picker is shipping "Running shoes".
+ */
+public class Inventory {
+    private final StripedStock[] stock;
+    private final LongAdder[] backorders;
+
+    public Inventory() {
+        this(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+    }
+
+    public Inventory(int stripes) {
+        if(stripes<1){
+            throw new IllegalArgumentException("stripes must be positive: "+stripes);
+        }
+        stock = new StripedStock[ShoeWarehouse.PRODUCT_LIST.length];
+        backorders = new LongAdder[ShoeWarehouse.PRODUCT_LIST.length];
+        for(int i=0;i<stock.length;i++){
+            stock[i] = new StripedStock(stripes);
+            backorders[i] = new LongAdder();
+        }
+    }
+
+    public void restock(String item, long units) {
+        if(units<0){
+            throw new IllegalArgumentException("units must not be negative: "+units);
+        }
+        stock[indexOf(item)].add(units);
+    }
+
+    /** Takes {@code qty} units off the shelf if they are all available; otherwise takes nothing and counts a backorder. */
+    public boolean reserve(String item, int qty) {
+        if(qty<=0){
+            throw new IllegalArgumentException("qty must be positive: "+qty);
+        }
+        int index = indexOf(item);
+        if(stock[index].reserve(qty)){
+            return true;
+        }
+        backorders[index].increment();
+        return false;
+    }
+
+    /** Puts back units of a reservation that was not shipped. */
+    public void release(String item, int qty) {
+        if(qty<=0){
+            throw new IllegalArgumentException("qty must be positive: "+qty);
+        }
+        stock[indexOf(item)].release(qty);
+    }
+
+    public long available(String item) {
+        return stock[indexOf(item)].available();
+    }
+
+    public long getBackorderCount(String item) {
+        return backorders[indexOf(item)].sum();
+    }
+
+    private static int indexOf(String item) {
+        int index = ShoeWarehouse.productIndex(item);
+        if(index<0){
+            throw new IllegalArgumentException("unknown product: "+item);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,97 @@
+package warehouse;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear histogram of nanosecond durations.
+ * Each power of two is split into 8 buckets, so a reported percentile is within 12.5% of the real value.
+ * Buckets are {@link LongAdder}s, so many threads can record into the same bucket without contending.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for(int i=0;i<BUCKETS;i++){
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for(LongAdder bucket: counts){
+            count+=bucket.sum();
+        }
+        return count;
+    }
+
+    public double mean() {
+        long count = count();
+        return count==0 ? 0 : (double) total.sum()/count;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /** Upper bound of the bucket holding the given percentile, e.g. {@code percentile(99.9)}. */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for(int i=0;i<BUCKETS;i++){
+            snapshot[i] = counts[i].sum();
+            count+=snapshot[i];
+        }
+        if(count==0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile/100.0*count));
+        long seen = 0;
+        for(int i=0;i<BUCKETS;i++){
+            seen+=snapshot[i];
+            if(seen>=rank){
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    public void reset() {
+        for(LongAdder bucket: counts){
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    private static int bucketOf(long value) {
+        if(value<SUB_BUCKETS){
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if(bucket<SUB_BUCKETS){
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,28 @@
+package warehouse;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link LoadGenerator} run.
+ *
+ * @param ordersPerSecond target arrival rate over all producers; 0 means as fast as the warehouse accepts
+ * @param zipfExponent    product skew across {@link ShoeWarehouse#PRODUCT_LIST}; 0 is uniform
+ * @param batchSize       orders per {@code receiveOrders}/{@code fulfillOrders} call; 1 uses the single-order calls
+ * @param seed            makes the generated orders repeatable between runs
+ */
+public record LoadConfig(
+        double ordersPerSecond,
+        ArrivalPattern arrivalPattern,
+        double zipfExponent,
+        int producers,
+        int consumers,
+        Duration duration,
+        int batchSize,
+        long seed){
+
+    public LoadConfig {
+        if(producers<1 || consumers<1 || batchSize<1){
+            throw new IllegalArgumentException("producers, consumers and batchSize must be positive");
+        }
+    }
+}
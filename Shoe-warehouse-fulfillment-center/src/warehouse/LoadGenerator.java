@@ -0,0 +1,126 @@
+package warehouse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link ShoeWarehouse} with generated orders for a fixed time and reports the throughput
+ * and the enqueue-to-fulfill latency percentiles the warehouse's {@link WarehouseMetrics} recorded.
+ * <p>
+ * Each producer follows its own arrival schedule (its share of the total rate) and never waits for
+ * the schedule when it is behind, so a saturated warehouse shows up as producer blocks and latency
+ * instead of a silently lower arrival rate.
+ */
+public class LoadGenerator {
+    private final ShoeWarehouse warehouse;
+    private final LoadConfig config;
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder fulfilled = new LongAdder();
+    private volatile boolean producing;
+    private volatile boolean consuming;
+
+    /** The warehouse needs {@link WarehouseMetrics} for the latency figures and should have logging turned off. */
+    public LoadGenerator(ShoeWarehouse warehouse, LoadConfig config) {
+        if(warehouse.getMetrics()==null){
+            throw new IllegalArgumentException("the warehouse needs WarehouseMetrics to measure latency");
+        }
+        this.warehouse = warehouse;
+        this.config = config;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        producing = true;
+        consuming = true;
+        List<Thread> consumers = new ArrayList<>();
+        for(int i=0;i<config.consumers();i++){
+            consumers.add(Thread.ofPlatform().name("picker-", i).start(this::consume));
+        }
+        List<Thread> producers = new ArrayList<>();
+        long start = System.nanoTime();
+        for(int i=0;i<config.producers();i++){
+            int index = i;
+            producers.add(Thread.ofPlatform().name("producer-", i).start(()-> produce(index, start)));
+        }
+
+        Thread.sleep(config.duration().toMillis());
+        producing = false;
+        for(Thread producer: producers){
+            producer.join();
+        }
+        while(warehouse.pendingOrders()>0){
+            Thread.sleep(1);
+        }
+        consuming = false;
+        for(Thread consumer: consumers){
+            consumer.interrupt();
+            consumer.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        MetricsSnapshot metrics = warehouse.getMetrics().snapshot();
+        return new LoadReport(config, generated.sum(), fulfilled.sum(), elapsed,
+                metrics.queueLatencyP50(), metrics.queueLatencyP99(), metrics.queueLatencyP999(),
+                metrics.queueLatencyMax(), metrics.producerBlocks());
+    }
+
+    private void produce(int index, long start) {
+        SplittableRandom random = new SplittableRandom(config.seed() + index);
+        ZipfSampler products = new ZipfSampler(ShoeWarehouse.PRODUCT_LIST.length, config.zipfExponent());
+        double meanGapNanos = config.ordersPerSecond()>0 ? 1e9 * config.producers() / config.ordersPerSecond() : 0;
+        long idBase = (long) index << 40;
+        long sequence = 0;
+        long nextArrival = start;
+        List<Order> batch = new ArrayList<>(config.batchSize());
+
+        while(producing){
+            if(meanGapNanos>0){
+                long wait = nextArrival - System.nanoTime();
+                if(wait>0){
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                nextArrival+=config.arrivalPattern().nextGapNanos(meanGapNanos, sequence, random);
+            }
+            Order order = new Order(idBase + sequence++,
+                    ShoeWarehouse.PRODUCT_LIST[products.sample(random)],
+                    1 + random.nextInt(3));
+            if(config.batchSize()==1){
+                warehouse.receiveOrder(order);
+                generated.increment();
+            }else{
+                batch.add(order);
+                if(batch.size()==config.batchSize()){
+                    warehouse.receiveOrders(batch);
+                    generated.add(batch.size());
+                    batch = new ArrayList<>(config.batchSize());
+                }
+            }
+        }
+        if(!batch.isEmpty()){
+            warehouse.receiveOrders(batch);
+            generated.add(batch.size());
+        }
+    }
+
+    private void consume() {
+        try{
+            while(consuming){
+                if(config.batchSize()==1){
+                    // null when an attached inventory back-ordered it
+                    if(warehouse.fulfillOrder()!=null){
+                        fulfilled.increment();
+                    }
+                }else{
+                    fulfilled.add(warehouse.fulfillOrders(config.batchSize()).size());
+                }
+            }
+        }catch (RuntimeException e){
+            if(!(e.getCause() instanceof InterruptedException)){
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package warehouse;
+
+/** Result of a {@link LoadGenerator} run; latencies are enqueue-to-fulfill in nanoseconds. */
+public record LoadReport(
+        LoadConfig config,
+        long generated,
+        long fulfilled,
+        long elapsedNanos,
+        long latencyP50,
+        long latencyP99,
+        long latencyP999,
+        long latencyMax,
+        long producerBlocks){
+
+    public double ordersPerSecond(){
+        return fulfilled*1e9/elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s rate=%s zipf=%.2f producers=%d consumers=%d batch=%d | generated=%d fulfilled=%d in %.1f s = %.0f orders/s"
+                        + " | latency us p50=%.1f p99=%.1f p99.9=%.1f max=%.1f | producer blocks=%d",
+                config.arrivalPattern(), config.ordersPerSecond()==0 ? "max" : String.format("%.0f/s", config.ordersPerSecond()),
+                config.zipfExponent(), config.producers(), config.consumers(), config.batchSize(),
+                generated, fulfilled, elapsedNanos/1e9, ordersPerSecond(),
+                latencyP50/1e3, latencyP99/1e3, latencyP999/1e3, latencyMax/1e3, producerBlocks);
+    }
+}
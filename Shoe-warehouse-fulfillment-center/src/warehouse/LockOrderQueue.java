@@ -0,0 +1,190 @@
+package warehouse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking queue for virtual-thread producers and pickers. A virtual thread blocked in
+ * {@code synchronized}/{@code wait()} stays pinned to its carrier thread, so with thousands of
+ * blocked pickers {@link MonitorOrderQueue} runs out of carriers. {@link ReentrantLock} and
+ * {@link Condition#await()} unmount the virtual thread instead.
+ * <p>
+ * Orders are kept in a circular array and the two conditions let producers wake only pickers
+ * and pickers wake only producers, one at a time.
+ */
+public class LockOrderQueue implements OrderQueue {
+    private final Order[] items;
+    private int head;
+    private int count;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    public LockOrderQueue(int capacity) {
+        if(capacity<1){
+            throw new IllegalArgumentException("capacity must be positive: "+capacity);
+        }
+        this.items = new Order[capacity];
+    }
+
+    @Override
+    public boolean offer(Order order) {
+        lock.lock();
+        try{
+            if(count==items.length){
+                return false;
+            }
+            enqueue(order);
+            notEmpty.signal();
+            return true;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Order poll() {
+        lock.lock();
+        try{
+            if(count==0){
+                return null;
+            }
+            Order order = dequeue();
+            notFull.signal();
+            return order;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Order order) {
+        lock.lock();
+        try{
+            while(count==items.length){
+                notFull.await();
+            }
+            enqueue(order);
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Order take() {
+        lock.lock();
+        try{
+            while(count==0){
+                notEmpty.await();
+            }
+            Order order = dequeue();
+            notFull.signal();
+            return order;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(List<Order> orders) {
+        lock.lock();
+        try{
+            int next = 0;
+            while(next<orders.size()){
+                while(count==items.length){
+                    notFull.await();
+                }
+                int added = 0;
+                while(count<items.length && next<orders.size()){
+                    enqueue(orders.get(next++));
+                    added++;
+                }
+                signal(notEmpty, added);
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Order> takeBatch(int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        lock.lock();
+        try{
+            while(count==0){
+                notEmpty.await();
+            }
+            List<Order> batch = new ArrayList<>(Math.min(maxBatch, count));
+            while(count>0 && batch.size()<maxBatch){
+                batch.add(dequeue());
+            }
+            signal(notFull, batch.size());
+            return batch;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(List<Order> sink, int maxBatch) {
+        lock.lock();
+        try{
+            int removed = 0;
+            while(count>0 && removed<maxBatch){
+                sink.add(dequeue());
+                removed++;
+            }
+            signal(notFull, removed);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try{
+            return count;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return items.length;
+    }
+
+    private void enqueue(Order order){
+        items[(head+count)%items.length] = order;
+        count++;
+    }
+
+    private Order dequeue(){
+        Order order = items[head];
+        items[head] = null;
+        head = (head+1)%items.length;
+        count--;
+        return order;
+    }
+
+    private static void signal(Condition condition, int times){
+        for(int i=0;i<times;i++){
+            condition.signal();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package warehouse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time copy of {@link WarehouseMetrics}; all durations are in nanoseconds.
+ * {@code fulfilled} and the queue latencies cover shipped orders only, back-ordered ones are counted in {@code backordered}.
+ */
+public record MetricsSnapshot(
+        long elapsedNanos,
+        long received,
+        long fulfilled,
+        long backordered,
+        int queueDepth,
+        long queueLatencyP50,
+        long queueLatencyP99,
+        long queueLatencyP999,
+        long queueLatencyMax,
+        long producerBlocks,
+        long producerBlockedNanos,
+        long consumerIdleWaits,
+        long consumerIdleNanos,
+        Map<String, Double> ordersPerSecondByThread){
+
+    public double ordersPerSecond(){
+        return elapsedNanos==0 ? 0 : fulfilled*1e9/elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("received=%d fulfilled=%d (%.0f/s) backordered=%d depth=%d | queue latency us p50=%.1f p99=%.1f p99.9=%.1f max=%.1f"
+                        + " | producer blocks=%d (%d ms) | picker idle waits=%d (%d ms) | per thread/s=%s",
+                received, fulfilled, ordersPerSecond(), backordered, queueDepth,
+                queueLatencyP50/1e3, queueLatencyP99/1e3, queueLatencyP999/1e3, queueLatencyMax/1e3,
+                producerBlocks, TimeUnit.NANOSECONDS.toMillis(producerBlockedNanos),
+                consumerIdleWaits, TimeUnit.NANOSECONDS.toMillis(consumerIdleNanos),
+                ordersPerSecondByThread);
+    }
+}
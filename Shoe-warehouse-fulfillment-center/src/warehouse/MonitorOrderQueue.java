@@ -0,0 +1,112 @@
+package warehouse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The original warehouse queue: an {@link ArrayList} guarded by the object monitor,
+ * with every producer and picker waking each other through {@code notifyAll()}.
+ */
+public class MonitorOrderQueue implements OrderQueue {
+    private final List<Order> shippingItems;
+    private final int capacity;
+
+    public MonitorOrderQueue(int capacity) {
+        this.shippingItems = new ArrayList<>();
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized boolean offer(Order order) {
+        if(shippingItems.size()>=capacity){
+            return false;
+        }
+        shippingItems.add(order);
+        notifyAll();
+        return true;
+    }
+
+    @Override
+    public synchronized Order poll() {
+        if(shippingItems.isEmpty()){
+            return null;
+        }
+        Order item = shippingItems.remove(0);
+        notifyAll();
+        return item;
+    }
+
+    @Override
+    public synchronized void put(Order order) {
+        while(shippingItems.size()>=capacity) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        shippingItems.add(order);
+        notifyAll();
+    }
+
+    @Override
+    public synchronized Order take() {
+        while(shippingItems.isEmpty()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        Order item = shippingItems.remove(0);
+        notifyAll();
+        return item;
+    }
+
+    @Override
+    public synchronized void putAll(List<Order> orders) {
+        int next = 0;
+        while(next<orders.size()){
+            while(shippingItems.size()>=capacity) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int count = Math.min(capacity-shippingItems.size(), orders.size()-next);
+            shippingItems.addAll(orders.subList(next, next+count));
+            next+=count;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized List<Order> takeBatch(int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        while(shippingItems.isEmpty()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        List<Order> batch = shippingItems.subList(0, Math.min(maxBatch, shippingItems.size()));
+        List<Order> items = new ArrayList<>(batch);
+        batch.clear();
+        notifyAll();
+        return items;
+    }
+
+    @Override
+    public synchronized int size() {
+        return shippingItems.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
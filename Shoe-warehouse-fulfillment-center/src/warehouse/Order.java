@@ -0,0 +1,34 @@
+package warehouse;
+
+import java.util.Objects;
+
+/**
+ * {@code receivedNanos} is the {@link System#nanoTime()} at which the warehouse accepted the order,
+ * or 0 when nobody is measuring queue latency. It is instrumentation, not part of the order:
+ * {@code equals} and {@code hashCode} ignore it, so a stamped order equals the one that was submitted.
+ */
+public record Order(long orderId, String item, int qty, long receivedNanos){
+    public Order(long orderId, String item, int qty){
+        this(orderId, item, qty, 0);
+    }
+
+    public Order received(long nanos){
+        return new Order(orderId, item, qty, nanos);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Order order
+                && orderId==order.orderId && qty==order.qty && Objects.equals(item, order.item);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, item, qty);
+    }
+
+    @Override
+    public String toString() {
+        return "Order[orderId="+orderId+", item="+item+", qty="+qty+"]";
+    }
+}
@@ -0,0 +1,215 @@
+package warehouse;
+
+import concurrency.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded MPMC ring buffer like {@link RingOrderQueue}, but the orders are stored column-wise in
+ * primitive arrays (id, product index, quantity, receive time) instead of as {@link Order} objects.
+ * <p>
+ * The primitive {@code offer}/{@code put} and the {@link OrderCursor} drains never allocate, so a
+ * full buffer is three flat arrays for the GC to skip and a drain walks them sequentially.
+ * The {@link OrderQueue} methods box and unbox at the edges for existing callers: they allocate the
+ * {@link Order}s they return (the single-order ones reuse a one-slot cursor per thread), so only the
+ * primitive and cursor overloads are allocation-free.
+ */
+public class OrderBuffer implements OrderQueue {
+    private final int capacity;
+    private final long[] orderIds;
+    private final byte[] products;
+    private final int[] qtys;
+    private final long[] receivedNanos;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePos = new AtomicLong();
+    private final AtomicLong dequeuePos = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+    private final ThreadLocal<OrderCursor> singleOrder = ThreadLocal.withInitial(()-> new OrderCursor(1));
+
+    /** {@code capacity} must be at least 2, as for {@link RingOrderQueue}. */
+    public OrderBuffer(int capacity, WaitStrategy waitStrategy) {
+        if(capacity<2){
+            throw new IllegalArgumentException("capacity must be at least 2: "+capacity);
+        }
+        this.capacity = capacity;
+        this.orderIds = new long[capacity];
+        this.products = new byte[capacity];
+        this.qtys = new int[capacity];
+        this.receivedNanos = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for(int i=0;i<capacity;i++){
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean offer(long orderId, int productIndex, int qty) {
+        return offer(orderId, productIndex, qty, 0);
+    }
+
+    public boolean offer(long orderId, int productIndex, int qty, long receivedNanos) {
+        if(productIndex<0 || productIndex>=ShoeWarehouse.PRODUCT_LIST.length){
+            throw new IllegalArgumentException("unknown product index: "+productIndex);
+        }
+        long pos = enqueuePos.get();
+        while(true){
+            int index = index(pos);
+            long diff = sequences.getAcquire(index) - pos;
+            if(diff==0){
+                if(enqueuePos.compareAndSet(pos, pos+1)){
+                    orderIds[index] = orderId;
+                    products[index] = (byte) productIndex;
+                    qtys[index] = qty;
+                    this.receivedNanos[index] = receivedNanos;
+                    sequences.setRelease(index, pos+1);
+                    return true;
+                }
+                pos = enqueuePos.get();
+            }else if(diff<0){
+                return false;
+            }else{
+                pos = enqueuePos.get();
+            }
+        }
+    }
+
+    public void put(long orderId, int productIndex, int qty) {
+        put(orderId, productIndex, qty, 0);
+    }
+
+    public void put(long orderId, int productIndex, int qty, long receivedNanos) {
+        int attempts = 0;
+        while(!offer(orderId, productIndex, qty, receivedNanos)){
+            attempts = idle(attempts);
+        }
+    }
+
+    /** Copies up to {@code maxBatch} orders into the cursor without blocking and returns how many were copied. */
+    public int drainTo(OrderCursor cursor, int maxBatch) {
+        int wanted = Math.min(maxBatch, cursor.maxBatch());
+        long pos = dequeuePos.get();
+        while(wanted>0){
+            int count = 0;
+            while(count<wanted && sequences.getAcquire(index(pos+count))==pos+count+1){
+                count++;
+            }
+            if(count==0){
+                if(sequences.getAcquire(index(pos))<pos+1){
+                    break;
+                }
+            }else if(dequeuePos.compareAndSet(pos, pos+count)){
+                for(int i=0;i<count;i++){
+                    int index = index(pos+i);
+                    cursor.orderIds[i] = orderIds[index];
+                    cursor.products[i] = products[index];
+                    cursor.qtys[i] = qtys[index];
+                    cursor.receivedNanos[i] = receivedNanos[index];
+                    sequences.setRelease(index, pos+i+capacity);
+                }
+                cursor.reset(count);
+                return count;
+            }
+            pos = dequeuePos.get();
+        }
+        cursor.reset(0);
+        return 0;
+    }
+
+    /** Blocks until at least one order is available, then copies up to {@code maxBatch} orders into the cursor. */
+    public int takeBatch(OrderCursor cursor, int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        int attempts = 0;
+        int count;
+        while((count = drainTo(cursor, maxBatch))==0){
+            attempts = idle(attempts);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean offer(Order order) {
+        return offer(order.orderId(), productIndexOf(order), order.qty(), order.receivedNanos());
+    }
+
+    @Override
+    public Order poll() {
+        OrderCursor cursor = singleOrder.get();
+        return drainTo(cursor, 1)==0 ? null : box(cursor);
+    }
+
+    @Override
+    public void put(Order order) {
+        put(order.orderId(), productIndexOf(order), order.qty(), order.receivedNanos());
+    }
+
+    @Override
+    public Order take() {
+        OrderCursor cursor = singleOrder.get();
+        takeBatch(cursor, 1);
+        return box(cursor);
+    }
+
+    @Override
+    public void putAll(List<Order> orders) {
+        for(Order order: orders){
+            put(order);
+        }
+    }
+
+    @Override
+    public List<Order> takeBatch(int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        OrderCursor cursor = new OrderCursor(Math.min(maxBatch, capacity));
+        takeBatch(cursor, maxBatch);
+        List<Order> batch = new ArrayList<>(cursor.size());
+        while(cursor.next()){
+            batch.add(cursor.toOrder());
+        }
+        return batch;
+    }
+
+    @Override
+    public int size() {
+        long size = enqueuePos.get() - dequeuePos.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    private static int productIndexOf(Order order) {
+        int productIndex = ShoeWarehouse.productIndex(order.item());
+        if(productIndex<0){
+            throw new IllegalArgumentException("unknown product: "+order.item());
+        }
+        return productIndex;
+    }
+
+    private static Order box(OrderCursor cursor) {
+        cursor.next();
+        return cursor.toOrder();
+    }
+
+    private int index(long pos){
+        return (int) (pos % capacity);
+    }
+
+    /** One wait with {@code waitStrategy}; an interrupt surfaces as a RuntimeException like everywhere else in the warehouse. */
+    private int idle(int attempts) {
+        try {
+            waitStrategy.checkInterrupt();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return waitStrategy.idle(attempts);
+    }
+}
@@ -0,0 +1,60 @@
+package warehouse;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary wire format between {@link ClusterClient} and {@link WarehouseNode}.
+ * A frame is an {@code int} order count followed by that many 13-byte orders
+ * ({@code long} id, {@code byte} product index, {@code int} quantity); a node answers every
+ * frame with an {@code int} acknowledging how many orders it accepted.
+ */
+final class OrderCodec {
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int ORDER_SIZE = Long.BYTES + Byte.BYTES + Integer.BYTES;
+    static final int ACK_SIZE = Integer.BYTES;
+
+    private OrderCodec() {
+    }
+
+    static void putOrder(ByteBuffer buffer, Order order) {
+        int productIndex = ShoeWarehouse.productIndex(order.item());
+        if(productIndex<0){
+            throw new IllegalArgumentException("unknown product: "+order.item());
+        }
+        buffer.putLong(order.orderId());
+        buffer.put((byte) productIndex);
+        buffer.putInt(order.qty());
+    }
+
+    /**
+     * Decodes the next complete frame from {@code buffer} (flipped for reading), or returns null if it hasn't fully arrived.
+     * A bad order count, product index or quantity is reported as a {@link ProtocolException}, so only that connection is dropped.
+     */
+    static List<Order> nextFrame(ByteBuffer buffer) throws ProtocolException {
+        if(buffer.remaining()<HEADER_SIZE){
+            return null;
+        }
+        int count = buffer.getInt(buffer.position());
+        if(count<0 || HEADER_SIZE + (long) count*ORDER_SIZE > buffer.capacity()){
+            throw new ProtocolException("bad frame, order count "+count);
+        }
+        if(buffer.remaining()<HEADER_SIZE + count*ORDER_SIZE){
+            return null;
+        }
+        buffer.getInt();
+        List<Order> orders = new ArrayList<>(count);
+        for(int i=0;i<count;i++){
+            long orderId = buffer.getLong();
+            int productIndex = buffer.get();
+            int qty = buffer.getInt();
+            if(productIndex<0 || productIndex>=ShoeWarehouse.PRODUCT_LIST.length || qty<=0){
+                throw new ProtocolException("bad order "+orderId+": product index "+productIndex+", qty "+qty);
+            }
+            orders.add(new Order(orderId, ShoeWarehouse.PRODUCT_LIST[productIndex], qty));
+        }
+        return orders;
+    }
+}
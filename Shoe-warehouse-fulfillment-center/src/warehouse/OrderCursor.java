@@ -0,0 +1,75 @@
+package warehouse;
+
+/**
+ * Reusable, allocation-free view over a batch of orders drained from an {@link OrderBuffer}.
+ * A picker creates one cursor up front and refills it on every drain:
+ * <pre>
+ *     while(buffer.takeBatch(cursor, 64)>0){
+ *         while(cursor.next()){
+ *             pick(cursor.orderId(), cursor.productIndex(), cursor.qty());
+ *         }
+ *     }
+ * </pre>
+ */
+public class OrderCursor {
+    final long[] orderIds;
+    final byte[] products;
+    final int[] qtys;
+    final long[] receivedNanos;
+    int size;
+    private int position = -1;
+
+    public OrderCursor(int maxBatch) {
+        this.orderIds = new long[maxBatch];
+        this.products = new byte[maxBatch];
+        this.qtys = new int[maxBatch];
+        this.receivedNanos = new long[maxBatch];
+    }
+
+    public int maxBatch() {
+        return orderIds.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Moves to the next order of the batch; returns false once the batch is exhausted. */
+    public boolean next() {
+        if(position+1>=size){
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    public long orderId() {
+        return orderIds[position];
+    }
+
+    public int productIndex() {
+        return products[position];
+    }
+
+    public String item() {
+        return ShoeWarehouse.PRODUCT_LIST[products[position]];
+    }
+
+    public int qty() {
+        return qtys[position];
+    }
+
+    public long receivedNanos() {
+        return receivedNanos[position];
+    }
+
+    /** Boxes the current order for code that still works with {@link Order} records. */
+    public Order toOrder() {
+        return new Order(orderId(), item(), qty(), receivedNanos());
+    }
+
+    void reset(int size) {
+        this.size = size;
+        this.position = -1;
+    }
+}
@@ -0,0 +1,250 @@
+package warehouse;
+
+import concurrency.WaitStrategy;
+import logging.AsyncLogger;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive front end of a {@link ShoeWarehouse}: upstream publishers feed orders in through
+ * {@link #intake()} and pickers subscribe to receive them, each order going to exactly one picker.
+ * <p>
+ * Nobody blocks. Pickers pull with {@code request(n)}; upstream publishers are only asked for as
+ * many orders as the warehouse has free slots, and are asked for more as pickers drain it. All
+ * delivery happens in a single serialized drain loop run on the executor. With an {@link OrderJournal}
+ * attached, moving orders into the warehouse waits for the journal's disk flush, so give the flow its
+ * own executor rather than the common pool when journaling.
+ * <p>
+ * Every signal to a picker, including {@code onError} for a bad {@code request(n)} and the
+ * {@code onComplete} after {@link #complete()}, comes from that drain loop, so pickers are signalled serially.
+ */
+public class OrderFlow implements Flow.Publisher<Order> {
+    private static final int MAX_EMPTY_POLLS = 200;
+
+    private final ShoeWarehouse warehouse;
+    private final Executor executor;
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Queue<Order> arrived = new ConcurrentLinkedQueue<>();
+    private final List<PickerSubscription> pickers = new CopyOnWriteArrayList<>();
+    private final List<IntakeSubscriber> intakes = new CopyOnWriteArrayList<>();
+    private final Queue<PickerSubscription> failed = new ConcurrentLinkedQueue<>();
+    private volatile boolean completing;
+    private int nextPicker;
+
+    public OrderFlow(ShoeWarehouse warehouse) {
+        this(warehouse, ForkJoinPool.commonPool());
+    }
+
+    public OrderFlow(ShoeWarehouse warehouse, Executor executor) {
+        this.warehouse = warehouse;
+        this.executor = executor;
+    }
+
+    /** A subscriber to attach upstream order publishers to; create one per publisher. */
+    public Flow.Subscriber<Order> intake() {
+        return new IntakeSubscriber();
+    }
+
+    /** Non-blocking intake for callers without a publisher: false means the warehouse is full, try again later. */
+    public boolean offer(Order order) {
+        if(completing){
+            throw new IllegalStateException("order flow is complete");
+        }
+        if(!warehouse.tryReceiveOrder(order)){
+            return false;
+        }
+        signal();
+        return true;
+    }
+
+    /**
+     * No more orders will be offered: once the orders already taken in, and those still coming from
+     * subscribed intake publishers, have been delivered, every picker gets {@code onComplete}.
+     */
+    public void complete() {
+        completing = true;
+        signal();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Order> picker) {
+        PickerSubscription subscription = new PickerSubscription(picker);
+        pickers.add(subscription);
+        picker.onSubscribe(subscription);
+    }
+
+    private void signal() {
+        if(wip.getAndIncrement()==0){
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do{
+            signalFailedPickers();
+            moveArrivedIntoWarehouse();
+            deliverToPickers();
+            requestFromUpstream();
+            completePickers();
+            missed = wip.addAndGet(-missed);
+        }while(missed!=0);
+    }
+
+    private void moveArrivedIntoWarehouse() {
+        Order order;
+        while((order = arrived.peek())!=null && warehouse.tryReceiveOrder(order)){
+            arrived.poll();
+        }
+    }
+
+    private void signalFailedPickers() {
+        PickerSubscription picker;
+        while((picker = failed.poll())!=null){
+            picker.subscriber.onError(picker.error);
+        }
+    }
+
+    /**
+     * An order still being published by a producer can be counted as pending before it can be taken, so
+     * an empty poll backs off briefly and then gives up; the producer's own signal starts the next drain.
+     */
+    private void deliverToPickers() {
+        int emptyPolls = 0;
+        while(true){
+            PickerSubscription picker = nextPickerWithDemand();
+            if(picker==null){
+                return;
+            }
+            Order order = warehouse.tryFulfillOrder();
+            if(order==null){
+                if(warehouse.pendingOrders()==0 || emptyPolls==MAX_EMPTY_POLLS){
+                    return;
+                }
+                emptyPolls = WaitStrategy.YIELDING.idle(emptyPolls);
+                continue;
+            }
+            emptyPolls = 0;
+            picker.demand.decrementAndGet();
+            picker.subscriber.onNext(order);
+        }
+    }
+
+    private PickerSubscription nextPickerWithDemand() {
+        int count = pickers.size();
+        for(int i=0;i<count;i++){
+            nextPicker = (nextPicker + 1) % count;
+            PickerSubscription picker = pickers.get(nextPicker);
+            if(picker.demand.get()>0){
+                return picker;
+            }
+        }
+        return null;
+    }
+
+    private void completePickers() {
+        if(!completing || !intakes.isEmpty() || !arrived.isEmpty() || warehouse.pendingOrders()>0){
+            return;
+        }
+        for(PickerSubscription picker: pickers){
+            if(pickers.remove(picker)){
+                picker.subscriber.onComplete();
+            }
+        }
+    }
+
+    private void requestFromUpstream() {
+        if(intakes.isEmpty()){
+            return;
+        }
+        long outstanding = 0;
+        for(IntakeSubscriber intake: intakes){
+            outstanding+=intake.outstanding.get();
+        }
+        long free = warehouse.capacity() - warehouse.pendingOrders() - arrived.size() - outstanding;
+        long share = free / intakes.size();
+        if(share<=0){
+            return;
+        }
+        for(IntakeSubscriber intake: intakes){
+            intake.outstanding.addAndGet(share);
+            intake.subscription.request(share);
+        }
+    }
+
+    private final class PickerSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Order> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private Throwable error;
+
+        PickerSubscription(Flow.Subscriber<? super Order> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n<=0){
+                // delivered by the drain loop, which may be in this subscriber's onNext right now
+                if(pickers.remove(this)){
+                    error = new IllegalArgumentException("request must be positive: "+n);
+                    failed.add(this);
+                    signal();
+                }
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added)-> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            pickers.remove(this);
+        }
+    }
+
+    private final class IntakeSubscriber implements Flow.Subscriber<Order> {
+        private final AtomicLong outstanding = new AtomicLong();
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            intakes.add(this);
+            signal();
+        }
+
+        @Override
+        public void onNext(Order order) {
+            outstanding.decrementAndGet();
+            if(!ShoeWarehouse.isValidOrder(order)){
+                // rejected here, on the publisher's thread, so it can never fail the drain loop
+                AsyncLogger.log("Order rejected: "+order);
+                signal();
+                return;
+            }
+            arrived.add(order);
+            signal();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            intakes.remove(this);
+            AsyncLogger.log("Order intake failed: "+throwable);
+            signal();
+        }
+
+        @Override
+        public void onComplete() {
+            intakes.remove(this);
+            signal();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package warehouse;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-ahead log of the orders a {@link ShoeWarehouse} accepted and fulfilled, kept in a
+ * memory-mapped file so that unfulfilled orders survive a crash.
+ * <p>
+ * Every event is a fixed 16-byte record: type, product index, quantity and order id. Appending is
+ * a copy into the mapping under a short lock; the expensive part, {@code force()}, is done by one
+ * committer thread for everything appended since its last flush (group commit). A producer that
+ * needs its order durable waits for the committer to pass its record, so N concurrent producers
+ * share one flush instead of paying N.
+ * <p>
+ * The file has room for {@code maxRecords} events (one per receive and one per fulfillment). When it
+ * fills up, and again on every open, the journal checkpoints: the still unfulfilled orders are written
+ * to a fresh file that atomically replaces the old one, so only orders that are actually pending count
+ * against the limit. Appends are rejected only when {@code maxRecords} orders are unfulfilled at once.
+ */
+public class OrderJournal implements AutoCloseable {
+    private static final int RECORD_SIZE = 16;
+    private static final byte END = 0;
+    private static final byte RECEIVED = 1;
+    private static final byte FULFILLED = 2;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<Long, Order> pending = new LinkedHashMap<>();
+    // fulfilled before their receive was journaled, see ShoeWarehouse.tryReceiveOrder
+    private final Set<Long> fulfilledEarly = new HashSet<>();
+    private final List<Order> unfulfilled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final Thread committer;
+    private FileChannel channel;
+    private MappedByteBuffer records;
+    // durable is counted over the whole life of the journal, base is where the current file starts in that count
+    private long base;
+    private int writePosition;
+    private long durable;
+    private long commits;
+    private int skippedRecords;
+    private boolean closed;
+
+    public OrderJournal(Path file, int maxRecords) throws IOException {
+        this.file = file;
+        this.capacity = maxRecords * RECORD_SIZE;
+        try(FileChannel previous = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            replay(previous.map(FileChannel.MapMode.READ_ONLY, 0, previous.size()));
+        }
+        this.unfulfilled = List.copyOf(pending.values());
+        lock.lock();
+        try{
+            checkpoint();
+        }finally {
+            lock.unlock();
+        }
+
+        this.committer = new Thread(this::commitLoop, "order-journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Records found on open that were not valid events (unknown type, product or a quantity below 1) and were
+     * left out of the replay; the checkpoint taken on open drops them from the file.
+     */
+    public int getSkippedRecordCount() {
+        return skippedRecords;
+    }
+
+    /** Orders that were received but not fulfilled when the journal was last closed or crashed. */
+    public List<Order> unfulfilledOrders() {
+        return unfulfilled;
+    }
+
+    /** Appends the order and returns once it is on disk. */
+    public void received(Order order) {
+        awaitDurable(append(RECEIVED, List.of(order)));
+    }
+
+    /** Appends all orders and returns once they are on disk; the whole batch waits for a single flush. */
+    public void received(List<Order> orders) {
+        awaitDurable(append(RECEIVED, orders));
+    }
+
+    /** Marks the order as fulfilled; doesn't wait for the disk, replaying a shipped order is the lesser evil. */
+    public void fulfilled(Order order) {
+        append(FULFILLED, List.of(order));
+    }
+
+    public void fulfilled(List<Order> orders) {
+        append(FULFILLED, orders);
+    }
+
+    /** Number of {@code force()} calls so far; compare with the number of orders to see the group commit at work. */
+    public long getCommitCount() {
+        lock.lock();
+        try{
+            return commits;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try{
+            closed = true;
+            appended.signalAll();
+        }finally {
+            lock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        records.force();
+        channel.close();
+    }
+
+    private long append(byte type, List<Order> orders) {
+        for(Order order: orders){
+            if(!ShoeWarehouse.isValidOrder(order)){
+                throw new IllegalArgumentException("cannot journal "+order+": unknown product or qty below 1");
+            }
+        }
+        lock.lock();
+        try{
+            if(closed){
+                throw new IllegalStateException("journal is closed");
+            }
+            if(writePosition + orders.size() * RECORD_SIZE > capacity){
+                checkpoint();
+                if(writePosition + orders.size() * RECORD_SIZE > capacity){
+                    throw new IllegalStateException("journal is full: "+pending.size()+" unfulfilled orders");
+                }
+            }
+            for(Order order: orders){
+                write(records, writePosition, type, order);
+                writePosition+=RECORD_SIZE;
+                track(type, order.orderId(), order);
+            }
+            appended.signal();
+            return base + writePosition;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void track(byte type, long orderId, Order order) {
+        if(type==RECEIVED){
+            if(!fulfilledEarly.remove(orderId)){
+                pending.put(orderId, order);
+            }
+        }else if(pending.remove(orderId)==null){
+            fulfilledEarly.add(orderId);
+        }
+    }
+
+    private static void write(MappedByteBuffer records, int position, byte type, Order order) {
+        write(records, position, type, order.orderId(), ShoeWarehouse.productIndex(order.item()), order.qty());
+    }
+
+    private static void write(MappedByteBuffer records, int position, byte type, long orderId, int productIndex, int qty) {
+        records.put(position + 1, (byte) productIndex);
+        records.putInt(position + 4, qty);
+        records.putLong(position + 8, orderId);
+        // type last: a record cut short by a crash reads as the end of the log
+        records.put(position, type);
+    }
+
+    /**
+     * Writes the pending orders, and the fulfillments still waiting for their receive, to a new file, flushes
+     * it and moves it over the journal; called with the lock held. A crash before the move leaves the old,
+     * complete file in place.
+     */
+    private void checkpoint() throws IOException {
+        if((long) (pending.size() + fulfilledEarly.size()) * RECORD_SIZE > capacity){
+            throw new IllegalStateException("journal is full: "+pending.size()+" unfulfilled orders");
+        }
+        Path next = file.resolveSibling(file.getFileName()+".next");
+        FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer nextRecords = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        int position = 0;
+        for(long orderId: fulfilledEarly){
+            write(nextRecords, position, FULFILLED, orderId, 0, 0);
+            position+=RECORD_SIZE;
+        }
+        for(Order order: pending.values()){
+            write(nextRecords, position, RECEIVED, order);
+            position+=RECORD_SIZE;
+        }
+        nextRecords.force();
+        Files.move(next, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        if(channel!=null){
+            channel.close();
+        }
+        long written = base + writePosition;
+        channel = nextChannel;
+        records = nextRecords;
+        writePosition = position;
+        // everything appended so far is either in the new file, already flushed, or fulfilled
+        base = written - position;
+        durable = written;
+        committed.signalAll();
+    }
+
+    private void awaitDurable(long position) {
+        lock.lock();
+        try{
+            while(durable<position){
+                committed.await();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commitLoop() {
+        while(true){
+            MappedByteBuffer flushing;
+            long flushingBase;
+            int from;
+            int to;
+            lock.lock();
+            try{
+                while(base + writePosition==durable && !closed){
+                    appended.awaitUninterruptibly();
+                }
+                if(base + writePosition==durable){
+                    return;
+                }
+                flushing = records;
+                flushingBase = base;
+                from = (int) (durable - base);
+                to = writePosition;
+            }finally {
+                lock.unlock();
+            }
+
+            // a checkpoint may swap the file meanwhile; it flushes everything itself, so this result is then stale but harmless
+            flushing.force(from, to - from);
+
+            lock.lock();
+            try{
+                durable = Math.max(durable, flushingBase + to);
+                commits++;
+                committed.signalAll();
+            }finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds {@code pending} and {@code fulfilledEarly}. Stops at the first empty record, which is the end of
+     * the log or a record torn by a crash (the type byte is written last); invalid records are skipped and counted.
+     */
+    private void replay(MappedByteBuffer previous) {
+        int position = 0;
+        while(position + RECORD_SIZE <= previous.capacity()){
+            byte type = previous.get(position);
+            if(type==END){
+                break;
+            }
+            int productIndex = previous.get(position + 1);
+            int qty = previous.getInt(position + 4);
+            long orderId = previous.getLong(position + 8);
+            if(type==RECEIVED && productIndex>=0 && productIndex<ShoeWarehouse.PRODUCT_LIST.length && qty>0){
+                track(RECEIVED, orderId, new Order(orderId, ShoeWarehouse.PRODUCT_LIST[productIndex], qty));
+            }else if(type==FULFILLED){
+                track(FULFILLED, orderId, null);
+            }else{
+                skippedRecords++;
+            }
+            position+=RECORD_SIZE;
+        }
+    }
+}
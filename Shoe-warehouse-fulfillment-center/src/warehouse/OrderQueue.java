@@ -0,0 +1,42 @@
+package warehouse;
+
+import java.util.List;
+
+/**
+ * Bounded hand-off between the producers that receive orders and the pickers that fulfill them.
+ * {@code put} and {@code take} block while the queue is full or empty, {@code offer} and {@code poll} never block.
+ * {@code putAll} and {@code takeBatch} move many orders per hand-off so the synchronization cost is paid once per batch.
+ */
+public interface OrderQueue {
+    boolean offer(Order order);
+
+    Order poll();
+
+    void put(Order order);
+
+    Order take();
+
+    /** Blocks until every order in {@code orders} has been queued, in list order. */
+    void putAll(List<Order> orders);
+
+    /**
+     * Blocks until at least one order is available, then removes up to {@code maxBatch} orders in FIFO order.
+     * Throws {@link IllegalArgumentException} when {@code maxBatch} is less than one.
+     */
+    List<Order> takeBatch(int maxBatch);
+
+    /** Removes up to {@code maxBatch} orders into {@code sink} without blocking and returns how many were removed. */
+    default int drainTo(List<Order> sink, int maxBatch) {
+        int count = 0;
+        Order order;
+        while(count<maxBatch && (order = poll())!=null){
+            sink.add(order);
+            count++;
+        }
+        return count;
+    }
+
+    int size();
+
+    int capacity();
+}
@@ -0,0 +1,208 @@
+package warehouse;
+
+import concurrency.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free multi-producer/multi-consumer bounded ring buffer.
+ * <p>
+ * Every slot carries a sequence number: a slot at position {@code pos} is free for a producer when its
+ * sequence equals {@code pos} and holds a published order when it equals {@code pos + 1}. Producers and
+ * pickers claim positions with a single CAS on their own counter, so they never touch a shared lock and
+ * a picker only ever competes with other pickers.
+ * <p>
+ * Batches claim a whole run of consecutive slots with one CAS: a run of free (or published) slots
+ * cannot change state until the counter moves past it, so a successful CAS means the run is ours.
+ */
+public class RingOrderQueue implements OrderQueue {
+    private final int capacity;
+    private final Order[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePos = new AtomicLong();
+    private final AtomicLong dequeuePos = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+
+    /** {@code capacity} must be at least 2: with one slot, a freed slot's sequence would read as free to the next producer too. */
+    public RingOrderQueue(int capacity, WaitStrategy waitStrategy) {
+        if(capacity<2){
+            throw new IllegalArgumentException("capacity must be at least 2: "+capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new Order[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for(int i=0;i<capacity;i++){
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public boolean offer(Order order) {
+        long pos = enqueuePos.get();
+        while(true){
+            int index = index(pos);
+            long diff = sequences.getAcquire(index) - pos;
+            if(diff==0){
+                if(enqueuePos.compareAndSet(pos, pos+1)){
+                    buffer[index] = order;
+                    sequences.setRelease(index, pos+1);
+                    return true;
+                }
+                pos = enqueuePos.get();
+            }else if(diff<0){
+                return false;
+            }else{
+                pos = enqueuePos.get();
+            }
+        }
+    }
+
+    @Override
+    public Order poll() {
+        long pos = dequeuePos.get();
+        while(true){
+            int index = index(pos);
+            long diff = sequences.getAcquire(index) - (pos+1);
+            if(diff==0){
+                if(dequeuePos.compareAndSet(pos, pos+1)){
+                    Order order = buffer[index];
+                    buffer[index] = null;
+                    sequences.setRelease(index, pos+capacity);
+                    return order;
+                }
+                pos = dequeuePos.get();
+            }else if(diff<0){
+                return null;
+            }else{
+                pos = dequeuePos.get();
+            }
+        }
+    }
+
+    /** Queues as many orders as currently fit, starting at {@code from}, and returns how many were queued. */
+    public int offerBatch(List<Order> orders, int from) {
+        int wanted = orders.size()-from;
+        long pos = enqueuePos.get();
+        while(wanted>0){
+            int count = 0;
+            while(count<wanted && sequences.getAcquire(index(pos+count))==pos+count){
+                count++;
+            }
+            if(count==0){
+                if(sequences.getAcquire(index(pos))<pos){
+                    return 0;
+                }
+            }else if(enqueuePos.compareAndSet(pos, pos+count)){
+                for(int i=0;i<count;i++){
+                    int index = index(pos+i);
+                    buffer[index] = orders.get(from+i);
+                    sequences.setRelease(index, pos+i+1);
+                }
+                return count;
+            }
+            pos = enqueuePos.get();
+        }
+        return 0;
+    }
+
+    @Override
+    public int drainTo(List<Order> sink, int maxBatch) {
+        long pos = dequeuePos.get();
+        while(maxBatch>0){
+            int count = 0;
+            while(count<maxBatch && sequences.getAcquire(index(pos+count))==pos+count+1){
+                count++;
+            }
+            if(count==0){
+                if(sequences.getAcquire(index(pos))<pos+1){
+                    return 0;
+                }
+            }else if(dequeuePos.compareAndSet(pos, pos+count)){
+                for(int i=0;i<count;i++){
+                    int index = index(pos+i);
+                    sink.add(buffer[index]);
+                    buffer[index] = null;
+                    sequences.setRelease(index, pos+i+capacity);
+                }
+                return count;
+            }
+            pos = dequeuePos.get();
+        }
+        return 0;
+    }
+
+    @Override
+    public void put(Order order) {
+        int attempts = 0;
+        while(!offer(order)){
+            attempts = idle(attempts);
+        }
+    }
+
+    @Override
+    public Order take() {
+        int attempts = 0;
+        Order order;
+        while((order = poll())==null){
+            attempts = idle(attempts);
+        }
+        return order;
+    }
+
+    @Override
+    public void putAll(List<Order> orders) {
+        int next = 0;
+        int attempts = 0;
+        while(next<orders.size()){
+            int count = offerBatch(orders, next);
+            if(count==0){
+                attempts = idle(attempts);
+            }else{
+                next+=count;
+                attempts = 0;
+            }
+        }
+    }
+
+    @Override
+    public List<Order> takeBatch(int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        List<Order> batch = new ArrayList<>(Math.min(maxBatch, capacity));
+        int attempts = 0;
+        while(drainTo(batch, maxBatch)==0){
+            attempts = idle(attempts);
+        }
+        return batch;
+    }
+
+    @Override
+    public int size() {
+        long size = enqueuePos.get() - dequeuePos.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    private int index(long pos){
+        return (int) (pos % capacity);
+    }
+
+    /** One wait with {@code waitStrategy}; an interrupt surfaces as a RuntimeException like everywhere else in the warehouse. */
+    private int idle(int attempts) {
+        try {
+            waitStrategy.checkInterrupt();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return waitStrategy.idle(attempts);
+    }
+}
@@ -0,0 +1,26 @@
+package warehouse;
+
+/** How {@link ShardedOrderQueue} picks the shard an order is queued on. */
+public enum ShardRouting {
+    /** One shard per entry of {@link ShoeWarehouse#PRODUCT_LIST}; an order for any other product is rejected. */
+    BY_PRODUCT {
+        @Override
+        int shardOf(Order order, int shardCount) {
+            int productIndex = ShoeWarehouse.productIndex(order.item());
+            if(productIndex<0){
+                throw new IllegalArgumentException("unknown product: "+order.item());
+            }
+            return productIndex % shardCount;
+        }
+    },
+    /** Spreads orders by a mix of {@code orderId}, independent of the product. */
+    BY_ORDER_ID {
+        @Override
+        int shardOf(Order order, int shardCount) {
+            long h = order.orderId() * 0x9E3779B97F4A7C15L;
+            return Math.floorMod((int) (h ^ (h >>> 32)), shardCount);
+        }
+    };
+
+    abstract int shardOf(Order order, int shardCount);
+}
@@ -0,0 +1,161 @@
+package warehouse;
+
+import concurrency.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Splits the warehouse into independent {@link RingOrderQueue} shards so pickers for different
+ * products stop contending on the same counters.
+ * <p>
+ * Producers block only on the shard their order routes to. Each picker thread is given a home
+ * shard the first time it takes an order and steals from the other shards when its home is empty.
+ */
+public class ShardedOrderQueue implements OrderQueue {
+    private final RingOrderQueue[] shards;
+    private final ShardRouting routing;
+    private final WaitStrategy waitStrategy;
+    private final AtomicInteger nextHome = new AtomicInteger();
+    private final ThreadLocal<Integer> homeShard;
+    private final LongAdder steals = new LongAdder();
+
+    public ShardedOrderQueue(int totalCapacity, ShardRouting routing, WaitStrategy waitStrategy) {
+        this(totalCapacity, ShoeWarehouse.PRODUCT_LIST.length, routing, waitStrategy);
+    }
+
+    public ShardedOrderQueue(int totalCapacity, int shardCount, ShardRouting routing, WaitStrategy waitStrategy) {
+        if(shardCount<1 || totalCapacity<2L*shardCount){
+            throw new IllegalArgumentException("need at least two slots per shard: capacity="+totalCapacity+", shards="+shardCount);
+        }
+        this.shards = new RingOrderQueue[shardCount];
+        for(int i=0;i<shardCount;i++){
+            int shardCapacity = totalCapacity/shardCount + (i<totalCapacity%shardCount ? 1 : 0);
+            shards[i] = new RingOrderQueue(shardCapacity, waitStrategy);
+        }
+        this.routing = routing;
+        this.waitStrategy = waitStrategy;
+        this.homeShard = ThreadLocal.withInitial(()-> Math.floorMod(nextHome.getAndIncrement(), shardCount));
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /** Number of orders a picker took from a shard other than its home shard. */
+    public long getStealCount() {
+        return steals.sum();
+    }
+
+    @Override
+    public boolean offer(Order order) {
+        return shards[routing.shardOf(order, shards.length)].offer(order);
+    }
+
+    @Override
+    public Order poll() {
+        int home = homeShard.get();
+        Order order = shards[home].poll();
+        for(int i=1;order==null && i<shards.length;i++){
+            order = shards[(home+i)%shards.length].poll();
+            if(order!=null){
+                steals.increment();
+            }
+        }
+        return order;
+    }
+
+    @Override
+    public void put(Order order) {
+        shards[routing.shardOf(order, shards.length)].put(order);
+    }
+
+    @Override
+    public Order take() {
+        int attempts = 0;
+        Order order;
+        while((order = poll())==null){
+            attempts = idle(attempts);
+        }
+        return order;
+    }
+
+    @Override
+    public void putAll(List<Order> orders) {
+        List<List<Order>> byShard = new ArrayList<>(shards.length);
+        for(int i=0;i<shards.length;i++){
+            byShard.add(new ArrayList<>());
+        }
+        for(Order order: orders){
+            byShard.get(routing.shardOf(order, shards.length)).add(order);
+        }
+        for(int i=0;i<shards.length;i++){
+            if(!byShard.get(i).isEmpty()){
+                shards[i].putAll(byShard.get(i));
+            }
+        }
+    }
+
+    @Override
+    public List<Order> takeBatch(int maxBatch) {
+        if(maxBatch<1){
+            throw new IllegalArgumentException("maxBatch must be positive: "+maxBatch);
+        }
+        List<Order> batch = new ArrayList<>();
+        int home = homeShard.get();
+        int attempts = 0;
+        while(true){
+            if(shards[home].drainTo(batch, maxBatch)>0){
+                return batch;
+            }
+            for(int i=1;i<shards.length;i++){
+                int stolen = shards[(home+i)%shards.length].drainTo(batch, maxBatch);
+                if(stolen>0){
+                    steals.add(stolen);
+                    return batch;
+                }
+            }
+            attempts = idle(attempts);
+        }
+    }
+
+    @Override
+    public int drainTo(List<Order> sink, int maxBatch) {
+        int count = 0;
+        int home = homeShard.get();
+        for(int i=0;i<shards.length && count<maxBatch;i++){
+            count+=shards[(home+i)%shards.length].drainTo(sink, maxBatch-count);
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(RingOrderQueue shard: shards){
+            size+=shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        int capacity = 0;
+        for(RingOrderQueue shard: shards){
+            capacity+=shard.capacity();
+        }
+        return capacity;
+    }
+
+    /** One wait with {@code waitStrategy}; an interrupt surfaces as a RuntimeException like everywhere else in the warehouse. */
+    private int idle(int attempts) {
+        try {
+            waitStrategy.checkInterrupt();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return waitStrategy.idle(attempts);
+    }
+}
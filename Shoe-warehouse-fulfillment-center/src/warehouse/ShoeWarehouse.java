@@ -0,0 +1,428 @@
+package warehouse;
+
+import logging.AsyncLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ShoeWarehouse{
+    public final static String[] PRODUCT_LIST = {"Running shoes", "Sandles", "Boots", "Slippers", "High Tops"};
+    public final static int CAPACITY = 20;
+
+    private final OrderQueue shippingItems;
+    private final WarehouseMetrics metrics;
+    private final Inventory inventory;
+    private final Queue<Order> backorders = new ConcurrentLinkedQueue<>();
+    private final LongAdder duplicates = new LongAdder();
+    private final BlockingQueue<List<Order>> waves = new LinkedBlockingQueue<>();
+    private final AtomicInteger ordersInWaves = new AtomicInteger();
+    private ScheduledExecutorService wavePlanner;
+    private ConcurrentLongHashSet seenOrderIds;
+    private OrderJournal journal;
+    private boolean logging = true;
+
+    public ShoeWarehouse() {
+        this(new MonitorOrderQueue(CAPACITY));
+    }
+
+    public ShoeWarehouse(OrderQueue shippingItems) {
+        this(shippingItems, null);
+    }
+
+    public ShoeWarehouse(OrderQueue shippingItems, WarehouseMetrics metrics) {
+        this(shippingItems, metrics, null);
+    }
+
+    /** With an inventory, fulfilling an order also reserves its {@code qty}; orders that can't be reserved are back-ordered. */
+    public ShoeWarehouse(OrderQueue shippingItems, WarehouseMetrics metrics, Inventory inventory) {
+        this.shippingItems = shippingItems;
+        this.metrics = metrics;
+        this.inventory = inventory;
+        if(metrics!=null){
+            metrics.attach(shippingItems);
+        }
+    }
+
+    public WarehouseMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /** Removes and returns the orders that were out of stock when they were picked. */
+    public List<Order> drainBackorders() {
+        List<Order> items = new ArrayList<>();
+        Order item;
+        while((item = backorders.poll())!=null){
+            items.add(item);
+        }
+        return items;
+    }
+
+    /** Turns the per-order log lines off for load tests; call before the producer and picker threads start. */
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    /**
+     * Rejects orders whose {@code orderId} is still in {@code seenOrderIds};
+     * call before the producer threads start.
+     */
+    public void setDuplicateFilter(ConcurrentLongHashSet seenOrderIds) {
+        this.seenOrderIds = seenOrderIds;
+    }
+
+    /**
+     * Writes every accepted order to {@code journal} before it is queued and marks it once it ships;
+     * call before the producer threads start.
+     */
+    public void setJournal(OrderJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Queues again the orders the journal holds as not yet fulfilled, without journaling them twice.
+     * Blocks like {@link #receiveOrder} when there are more than fit, so start the pickers first.
+     */
+    public int replayJournal() {
+        List<Order> orders = journal.unfulfilledOrders();
+        for(Order item: orders){
+            if(seenOrderIds!=null){
+                seenOrderIds.add(item.orderId());
+            }
+            shippingItems.put(metrics==null ? item : item.received(System.nanoTime()));
+        }
+        if(logging){
+            AsyncLogger.log("Replayed from journal: "+orders
+                    +(journal.getSkippedRecordCount()>0 ? ", skipped "+journal.getSkippedRecordCount()+" invalid records" : ""));
+        }
+        return orders.size();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public static int productIndex(String item){
+        for(int i=0;i<PRODUCT_LIST.length;i++){
+            if(PRODUCT_LIST[i].equals(item)){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns false if the order was rejected as a duplicate.
+     * Throws IllegalArgumentException, before anything is queued or journaled, for a quantity below 1
+     * or a product that is not in {@link #PRODUCT_LIST}.
+     */
+    public boolean receiveOrder(Order item){
+        checkOrder(item);
+        if(isDuplicate(item)){
+            return false;
+        }
+        if(journal!=null){
+            journal.received(item);
+        }
+        if(metrics==null){
+            shippingItems.put(item);
+        }else{
+            long start = System.nanoTime();
+            Order stamped = item.received(start);
+            if(!shippingItems.offer(stamped)){
+                shippingItems.put(stamped);
+                metrics.recordProducerBlock(System.nanoTime() - start);
+            }
+            metrics.recordReceived(1);
+        }
+        if(logging){
+            AsyncLogger.log("Incoming: "+item);
+        }
+        return true;
+    }
+
+    /** Returns the number of orders accepted; duplicates are left out. The whole batch is rejected if any order is invalid. */
+    public int receiveOrders(List<Order> items){
+        for(Order item: items){
+            checkOrder(item);
+        }
+        if(seenOrderIds!=null){
+            List<Order> unique = new ArrayList<>(items.size());
+            for(Order item: items){
+                if(!isDuplicate(item)){
+                    unique.add(item);
+                }
+            }
+            items = unique;
+        }
+        if(journal!=null){
+            journal.received(items);
+        }
+        if(metrics==null){
+            shippingItems.putAll(items);
+        }else{
+            long start = System.nanoTime();
+            List<Order> stamped = new ArrayList<>(items.size());
+            for(Order item: items){
+                stamped.add(item.received(start));
+            }
+            boolean fits = shippingItems.capacity() - shippingItems.size() >= items.size();
+            shippingItems.putAll(stamped);
+            if(!fits){
+                metrics.recordProducerBlock(System.nanoTime() - start);
+            }
+            metrics.recordReceived(items.size());
+        }
+        if(logging){
+            AsyncLogger.log("Incoming: "+items);
+        }
+        return items.size();
+    }
+
+    /**
+     * Takes the next order and ships it. Without an inventory this always returns the order; with one
+     * it returns null when the order had to be back-ordered, and the order is then in {@link #drainBackorders()}.
+     */
+    public Order fulfillOrder(){
+        Order item;
+        long now = 0;
+        if(metrics==null){
+            item = shippingItems.take();
+        }else{
+            item = shippingItems.poll();
+            now = System.nanoTime();
+            if(item==null){
+                item = shippingItems.take();
+                long idleStart = now;
+                now = System.nanoTime();
+                metrics.recordConsumerIdle(now - idleStart);
+            }
+        }
+        return ship(item, now);
+    }
+
+    /**
+     * Non-blocking {@link #receiveOrder}: returns false without doing anything when the warehouse is full,
+     * true once the order was taken (queued, or dropped as a duplicate). Never waits for a picker or for
+     * queue space, so it is safe to call from a thread the pickers depend on. With a journal attached it
+     * does wait for the journal's group commit, a disk flush, before returning.
+     * <p>
+     * The order is journaled only after it is queued, so a picker may ship it before the journal has it;
+     * {@link OrderJournal} copes with that order of events. The duplicate filter claims the id before the
+     * offer and releases it again when the warehouse is full.
+     */
+    public boolean tryReceiveOrder(Order item){
+        checkOrder(item);
+        if(isDuplicate(item)){
+            return true;
+        }
+        if(!shippingItems.offer(metrics==null ? item : item.received(System.nanoTime()))){
+            if(seenOrderIds!=null){
+                seenOrderIds.remove(item.orderId());
+            }
+            return false;
+        }
+        if(journal!=null){
+            journal.received(item);
+        }
+        if(metrics!=null){
+            metrics.recordReceived(1);
+        }
+        if(logging){
+            AsyncLogger.log("Incoming: "+item);
+        }
+        return true;
+    }
+
+    /** Non-blocking {@link #fulfillOrder}: also returns null when no order is waiting. */
+    public Order tryFulfillOrder(){
+        Order item = shippingItems.poll();
+        if(item==null){
+            return null;
+        }
+        return ship(item, metrics==null ? 0 : System.nanoTime());
+    }
+
+    public int pendingOrders(){
+        return shippingItems.size();
+    }
+
+    public int capacity(){
+        return shippingItems.capacity();
+    }
+
+    public List<Order> fulfillOrders(int maxBatch){
+        List<Order> items;
+        long now = 0;
+        if(metrics==null){
+            items = shippingItems.takeBatch(maxBatch);
+        }else{
+            long start = System.nanoTime();
+            boolean empty = shippingItems.size()==0;
+            items = shippingItems.takeBatch(maxBatch);
+            now = System.nanoTime();
+            if(empty){
+                metrics.recordConsumerIdle(now - start);
+            }
+        }
+        return shipAll(items, now);
+    }
+
+    /**
+     * Moves up to {@code maxOrders} pending orders out of the queue without blocking intake, sorts them into
+     * waves with {@code planner} and releases the waves to {@link #fulfillWave()}. Returns the number of waves.
+     * Released waves never hold more than {@code capacity()} orders in total; while they are that full,
+     * nothing is planned and 0 is returned.
+     */
+    public int planWaves(WavePlanner planner, int maxOrders){
+        int reserved;
+        int backlog;
+        do{
+            backlog = ordersInWaves.get();
+            reserved = Math.min(maxOrders, shippingItems.capacity() - backlog);
+            if(reserved<=0){
+                return 0;
+            }
+        }while(!ordersInWaves.compareAndSet(backlog, backlog + reserved));
+
+        List<Order> snapshot = new ArrayList<>(reserved);
+        shippingItems.drainTo(snapshot, reserved);
+        ordersInWaves.addAndGet(snapshot.size() - reserved);
+        if(snapshot.isEmpty()){
+            return 0;
+        }
+        List<List<Order>> planned = planner.plan(snapshot);
+        waves.addAll(planned);
+        if(logging){
+            AsyncLogger.log("Planned "+planned.size()+" waves from "+snapshot.size()+" orders");
+        }
+        return planned.size();
+    }
+
+    /**
+     * Plans waves every {@code period} until {@link #stopWavePlanning()} is called, skipping a round while
+     * {@code maxOrders} or more orders are still waiting in released waves.
+     */
+    public synchronized ScheduledFuture<?> startWavePlanning(WavePlanner planner, int maxOrders, long period, TimeUnit unit){
+        if(wavePlanner==null){
+            wavePlanner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "wave-planner");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return wavePlanner.scheduleWithFixedDelay(()->{
+            if(ordersInWaves.get()<maxOrders){
+                planWaves(planner, maxOrders);
+            }
+        }, 0, period, unit);
+    }
+
+    public synchronized void stopWavePlanning(){
+        if(wavePlanner!=null){
+            wavePlanner.shutdown();
+            wavePlanner = null;
+        }
+    }
+
+    /** Orders released in waves that no picker has taken yet. */
+    public int getWaveBacklog(){
+        return ordersInWaves.get();
+    }
+
+    /** Blocks until a planned wave is available and fulfills it; back-ordered orders are left out of the result. */
+    public List<Order> fulfillWave(){
+        List<Order> items;
+        try {
+            items = waves.take();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        ordersInWaves.addAndGet(-items.size());
+        return shipAll(items, metrics==null ? 0 : System.nanoTime());
+    }
+
+    /** Ships what can be reserved; metrics count only those, {@code takenNanos} is when they left the queue. */
+    private List<Order> shipAll(List<Order> items, long takenNanos){
+        if(inventory!=null){
+            items.removeIf(item -> !reserve(item));
+        }
+        if(metrics!=null){
+            for(Order item: items){
+                metrics.recordFulfilled(item, takenNanos);
+            }
+        }
+        if(journal!=null){
+            journal.fulfilled(items);
+        }
+        if(logging){
+            AsyncLogger.log(Thread.currentThread().getName() + " Fulfilled: "+items);
+        }
+        return items;
+    }
+
+    private Order ship(Order item, long takenNanos){
+        if(!reserve(item)){
+            return null;
+        }
+        if(metrics!=null){
+            metrics.recordFulfilled(item, takenNanos);
+        }
+        if(journal!=null){
+            journal.fulfilled(item);
+        }
+        if(logging){
+            AsyncLogger.log(Thread.currentThread().getName() + " Fulfilled: "+item);
+        }
+        return item;
+    }
+
+    /** A quantity of at least 1 and a product from {@link #PRODUCT_LIST}. */
+    static boolean isValidOrder(Order item){
+        return item.qty()>0 && productIndex(item.item())>=0;
+    }
+
+    private static void checkOrder(Order item){
+        if(!isValidOrder(item)){
+            throw new IllegalArgumentException("unknown product or qty below 1: "+item);
+        }
+    }
+
+    private boolean isDuplicate(Order item){
+        if(seenOrderIds==null || seenOrderIds.add(item.orderId())){
+            return false;
+        }
+        duplicates.increment();
+        if(logging){
+            AsyncLogger.log("Duplicate rejected: "+item);
+        }
+        return true;
+    }
+
+    private boolean reserve(Order item){
+        if(inventory==null || inventory.reserve(item.item(), item.qty())){
+            return true;
+        }
+        backorders.add(item);
+        if(metrics!=null){
+            metrics.recordBackordered();
+        }
+        if(logging){
+            AsyncLogger.log(Thread.currentThread().getName() + " Backordered: "+item);
+        }
+        return false;
+    }
+}
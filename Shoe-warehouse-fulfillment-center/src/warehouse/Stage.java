@@ -0,0 +1,89 @@
+package warehouse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One stage of a {@link FulfillmentPipeline}: a bounded queue in front of its own thread pool.
+ * The handler turns an input into the output passed to the next stage, or returns null to drop it.
+ * A full queue makes the submitting thread wait, so a slow stage pushes back on the stage before it.
+ */
+public class Stage<I, O> {
+    private final String name;
+    private final Function<I, O> handler;
+    private final Consumer<O> next;
+    private final ThreadPoolExecutor pool;
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public Stage(String name, int threads, int queueCapacity, Function<I, O> handler, Consumer<O> next) {
+        this.name = name;
+        this.handler = handler;
+        this.next = next;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, name+"-"+threadNumber.getAndIncrement()),
+                (task, executor)->{
+                    if(executor.isShutdown()){
+                        throw new RejectedExecutionException(name+" stage is shut down");
+                    }
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void submit(I input) {
+        pool.execute(()->{
+            long start = System.nanoTime();
+            O output = handler.apply(input);
+            serviceTime.record(System.nanoTime() - start);
+            processed.increment();
+            if(output==null){
+                dropped.increment();
+            }else if(next!=null){
+                next.accept(output);
+            }
+        });
+    }
+
+    /** Changes the number of threads serving this stage while it runs. */
+    public synchronized void resize(int threads) {
+        if(threads>pool.getMaximumPoolSize()){
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        }else{
+            pool.setCorePoolSize(threads);
+            pool.setMaximumPoolSize(threads);
+        }
+    }
+
+    public StageStats stats() {
+        return new StageStats(name, pool.getCorePoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+                processed.sum(), dropped.sum(),
+                serviceTime.percentile(50), serviceTime.percentile(99), (long) serviceTime.mean());
+    }
+
+    void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+}
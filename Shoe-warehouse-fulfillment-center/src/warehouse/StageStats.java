@@ -0,0 +1,21 @@
+package warehouse;
+
+/** Snapshot of one {@link Stage}; service times are in nanoseconds. */
+public record StageStats(
+        String name,
+        int threads,
+        int busyThreads,
+        int queueDepth,
+        long processed,
+        long dropped,
+        long serviceTimeP50,
+        long serviceTimeP99,
+        long serviceTimeMean){
+
+    @Override
+    public String toString() {
+        return String.format("%-8s threads=%d busy=%d depth=%d processed=%d dropped=%d service us p50=%.1f p99=%.1f mean=%.1f",
+                name, threads, busyThreads, queueDepth, processed, dropped,
+                serviceTimeP50/1e3, serviceTimeP99/1e3, serviceTimeMean/1e3);
+    }
+}
@@ -0,0 +1,92 @@
+package warehouse;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock counter for one product, split into stripes the way {@link java.util.concurrent.atomic.LongAdder}
+ * splits a sum. Each thread reserves from its own stripe with a CAS-if-enough and only moves to the
+ * other stripes when its stripe runs dry, so pickers hammering the same SKU rarely CAS the same word.
+ * Stripes are 8 longs apart so they sit on different cache lines.
+ */
+class StripedStock {
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStock(int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PAD);
+    }
+
+    void add(long units) {
+        long share = units / stripes;
+        int home = homeStripe();
+        for(int i=0;i<stripes;i++){
+            long amount = share + (i==home ? units % stripes : 0);
+            if(amount!=0){
+                cells.getAndAdd(i * PAD, amount);
+            }
+        }
+    }
+
+    boolean reserve(long units) {
+        int home = homeStripe();
+        for(int i=0;i<stripes;i++){
+            int cell = ((home + i) % stripes) * PAD;
+            long available = cells.get(cell);
+            while(available>=units){
+                if(cells.compareAndSet(cell, available, available - units)){
+                    return true;
+                }
+                available = cells.get(cell);
+            }
+        }
+        return reserveAcrossStripes(units, home);
+    }
+
+    void release(long units) {
+        cells.getAndAdd(homeStripe() * PAD, units);
+    }
+
+    long available() {
+        long sum = 0;
+        for(int i=0;i<stripes;i++){
+            sum+=cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    /**
+     * No single stripe holds {@code units}: collect it piecewise and give it back if the stripes
+     * together don't have enough. A concurrent reserve can briefly see the collected units as
+     * missing, so this errs on the side of a false "out of stock", never an oversell.
+     */
+    private boolean reserveAcrossStripes(long units, int home) {
+        long taken = 0;
+        for(int i=0;i<stripes && taken<units;i++){
+            int cell = ((home + i) % stripes) * PAD;
+            long available = cells.get(cell);
+            while(available>0 && taken<units){
+                long take = Math.min(available, units - taken);
+                if(cells.compareAndSet(cell, available, available - take)){
+                    taken+=take;
+                    break;
+                }
+                available = cells.get(cell);
+            }
+        }
+        if(taken==units){
+            return true;
+        }
+        if(taken>0){
+            cells.getAndAdd(home * PAD, taken);
+        }
+        return false;
+    }
+
+    private int homeStripe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % stripes);
+    }
+}
@@ -0,0 +1,134 @@
+package warehouse;
+
+import logging.AsyncLogger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters a {@link ShoeWarehouse} updates when it is created with metrics: how long orders sit in
+ * the queue, how often and how long producers block on a full queue, how long pickers wait on an
+ * empty one, and how many orders each thread moved. Everything is a {@link LongAdder} or a
+ * {@link LatencyHistogram}, so recording never takes a lock.
+ */
+public class WarehouseMetrics {
+    private static final int MAX_TRACKED_THREADS = 256;
+
+    private final long startNanos = System.nanoTime();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder fulfilled = new LongAdder();
+    private final LongAdder backordered = new LongAdder();
+    private final LongAdder producerBlocks = new LongAdder();
+    private final LongAdder producerBlockedNanos = new LongAdder();
+    private final LongAdder consumerIdleWaits = new LongAdder();
+    private final LongAdder consumerIdleNanos = new LongAdder();
+    private final Map<Long, ThreadOrders> ordersByThread = new ConcurrentHashMap<>();
+    private final LongAdder otherThreadOrders = new LongAdder();
+    private final ThreadLocal<LongAdder> threadOrders = ThreadLocal.withInitial(this::registerThread);
+
+    /** Orders moved by one thread; threads are keyed by id, names can repeat or be empty. */
+    private record ThreadOrders(String name, LongAdder count) {}
+
+    private OrderQueue queue;
+    private ScheduledExecutorService reporter;
+
+    /** Past {@code MAX_TRACKED_THREADS}, for example with short-lived virtual threads, counts go to one shared bucket. */
+    private LongAdder registerThread(){
+        if(ordersByThread.size()>=MAX_TRACKED_THREADS){
+            return otherThreadOrders;
+        }
+        Thread thread = Thread.currentThread();
+        String name = thread.getName().isEmpty() ? "thread" : thread.getName();
+        return ordersByThread.computeIfAbsent(thread.threadId(),
+                id -> new ThreadOrders(name+"#"+id, new LongAdder())).count();
+    }
+
+    void attach(OrderQueue queue){
+        this.queue = queue;
+    }
+
+    void recordReceived(int count){
+        received.add(count);
+        threadOrders.get().add(count);
+    }
+
+    void recordProducerBlock(long nanos){
+        producerBlocks.increment();
+        producerBlockedNanos.add(nanos);
+    }
+
+    void recordConsumerIdle(long nanos){
+        consumerIdleWaits.increment();
+        consumerIdleNanos.add(nanos);
+    }
+
+    void recordFulfilled(Order order, long nowNanos){
+        if(order.receivedNanos()!=0){
+            queueLatency.record(nowNanos - order.receivedNanos());
+        }
+        fulfilled.increment();
+        threadOrders.get().increment();
+    }
+
+    void recordBackordered(){
+        backordered.increment();
+    }
+
+    public LatencyHistogram queueLatency() {
+        return queueLatency;
+    }
+
+    public MetricsSnapshot snapshot(){
+        long elapsed = System.nanoTime() - startNanos;
+        Map<String, Double> perThread = new TreeMap<>();
+        ordersByThread.values().forEach(thread -> perThread.put(thread.name(), ratePerSecond(thread.count(), elapsed)));
+        if(otherThreadOrders.sum()>0){
+            perThread.put("other threads", ratePerSecond(otherThreadOrders, elapsed));
+        }
+        return new MetricsSnapshot(
+                elapsed,
+                received.sum(),
+                fulfilled.sum(),
+                backordered.sum(),
+                queue==null ? 0 : queue.size(),
+                queueLatency.percentile(50),
+                queueLatency.percentile(99),
+                queueLatency.percentile(99.9),
+                queueLatency.max(),
+                producerBlocks.sum(),
+                producerBlockedNanos.sum(),
+                consumerIdleWaits.sum(),
+                consumerIdleNanos.sum(),
+                perThread);
+    }
+
+    private static double ratePerSecond(LongAdder count, long elapsedNanos){
+        return Math.round(count.sum()*1e10/elapsedNanos)/10.0;
+    }
+
+    /** Logs a snapshot every {@code period} until {@link #stopReporting()} is called. */
+    public synchronized ScheduledFuture<?> startReporting(long period, TimeUnit unit){
+        if(reporter==null){
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "warehouse-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return reporter.scheduleAtFixedRate(()-> AsyncLogger.log("Metrics: "+snapshot()), period, period, unit);
+    }
+
+    public synchronized void stopReporting(){
+        if(reporter!=null){
+            reporter.shutdown();
+            reporter = null;
+        }
+    }
+}
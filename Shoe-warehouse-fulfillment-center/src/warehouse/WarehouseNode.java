@@ -0,0 +1,145 @@
+package warehouse;
+
+import concurrency.WaitStrategy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One warehouse process of a cluster: a single selector thread accepts {@link ClusterClient}
+ * connections, decodes order frames into {@link ShoeWarehouse#receiveOrders} and acknowledges each
+ * frame. When the warehouse is full the selector thread waits in {@code receiveOrders}, stops
+ * reading, and TCP flow control pushes back on the clients.
+ * <pre>
+ *     java warehouse.WarehouseNode port [pickers] [capacity]
+ * </pre>
+ */
+public class WarehouseNode implements Runnable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final ShoeWarehouse warehouse;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ByteBuffer acks = ByteBuffer.allocateDirect(64 * 1024);
+    }
+
+    public WarehouseNode(int port, ShoeWarehouse warehouse) throws IOException {
+        this.warehouse = warehouse;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while(!Thread.currentThread().isInterrupted()){
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()){
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if(key.isAcceptable()){
+                            accept();
+                        }else{
+                            if(key.isReadable()){
+                                read(key);
+                            }
+                            if(key.isValid() && key.isWritable()){
+                                writeAcks(key);
+                                process(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if(channel==null){
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        if(channel.read(connection.in)<0){
+            key.cancel();
+            channel.close();
+            return;
+        }
+        process(key);
+    }
+
+    private void process(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        connection.in.flip();
+        List<Order> orders;
+        while(connection.acks.remaining()>=OrderCodec.ACK_SIZE
+                && (orders = OrderCodec.nextFrame(connection.in))!=null){
+            connection.acks.putInt(warehouse.receiveOrders(orders));
+        }
+        connection.in.compact();
+        writeAcks(key);
+    }
+
+    private void writeAcks(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        connection.acks.flip();
+        ((SocketChannel) key.channel()).write(connection.acks);
+        boolean pending = connection.acks.hasRemaining();
+        connection.acks.compact();
+        key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        int pickers = args.length>1 ? Integer.parseInt(args[1]) : 2;
+        int capacity = args.length>2 ? Integer.parseInt(args[2]) : 65_536;
+
+        ShoeWarehouse warehouse = new ShoeWarehouse(new RingOrderQueue(capacity, WaitStrategy.PARKING));
+        warehouse.setLogging(false);
+        for(int i=0;i<pickers;i++){
+            Thread picker = new Thread(()->{
+                while(true){
+                    warehouse.fulfillOrders(256);
+                }
+            }, "picker-"+i);
+            picker.setDaemon(true);
+            picker.start();
+        }
+
+        WarehouseNode node = new WarehouseNode(port, warehouse);
+        System.out.println("READY "+node.port());
+        System.out.flush();
+        node.run();
+    }
+}
@@ -0,0 +1,119 @@
+package warehouse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Groups a snapshot of pending orders into pick waves: orders are sorted by product, then quantity,
+ * with a fork/join merge sort, and each product's run is cut into waves of at most {@code waveSize}
+ * orders so a picker walks one aisle per wave.
+ * The sort works on one {@code long} per order packing product, quantity and the order's position
+ * in the snapshot, so no {@link Order} objects are compared or moved until the waves are built.
+ */
+public class WavePlanner {
+    private static final int INDEX_BITS = 32;
+    private static final int QTY_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long QTY_MASK = (1L << QTY_BITS) - 1;
+
+    private final int waveSize;
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+
+    public WavePlanner(int waveSize) {
+        this(waveSize, ForkJoinPool.commonPool(), 8192);
+    }
+
+    /** Snapshots of up to {@code sequentialThreshold} orders, and the leaves of bigger ones, are sorted in place by one thread. */
+    public WavePlanner(int waveSize, ForkJoinPool pool, int sequentialThreshold) {
+        if(waveSize<1 || sequentialThreshold<1){
+            throw new IllegalArgumentException("waveSize and sequentialThreshold must be positive");
+        }
+        this.waveSize = waveSize;
+        this.pool = pool;
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    public List<List<Order>> plan(List<Order> pending) {
+        int size = pending.size();
+        long[] keys = new long[size];
+        for(int i=0;i<size;i++){
+            Order order = pending.get(i);
+            long qty = Math.min(Math.max(order.qty(), 0), QTY_MASK);
+            keys[i] = ((long) ShoeWarehouse.productIndex(order.item()) << (QTY_BITS + INDEX_BITS))
+                    | (qty << INDEX_BITS) | i;
+        }
+        if(size<=sequentialThreshold){
+            Arrays.sort(keys);
+        }else{
+            pool.invoke(new MergeSortTask(keys, new long[size], 0, size, sequentialThreshold));
+        }
+
+        List<List<Order>> waves = new ArrayList<>();
+        List<Order> wave = null;
+        long waveProduct = -1;
+        for(long key: keys){
+            long product = key >>> (QTY_BITS + INDEX_BITS);
+            if(wave==null || wave.size()==waveSize || product!=waveProduct){
+                wave = new ArrayList<>(waveSize);
+                waves.add(wave);
+                waveProduct = product;
+            }
+            wave.add(pending.get((int) (key & INDEX_MASK)));
+        }
+        return waves;
+    }
+
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final long[] scratch;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        MergeSortTask(long[] keys, long[] scratch, int start, int end, int threshold) {
+            this.keys = keys;
+            this.scratch = scratch;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if((end-start)<=threshold){
+                Arrays.sort(keys, start, end);
+                return;
+            }
+            int mid = (start+end)>>>1;
+            MergeSortTask leftTask = new MergeSortTask(keys, scratch, start, mid, threshold);
+            MergeSortTask rightTask = new MergeSortTask(keys, scratch, mid, end, threshold);
+            leftTask.fork();
+            rightTask.fork();
+            leftTask.join();
+            rightTask.join();
+            merge(mid);
+        }
+
+        private void merge(int mid) {
+            if(keys[mid-1]<=keys[mid]){
+                return;
+            }
+            System.arraycopy(keys, start, scratch, start, end-start);
+            int left = start;
+            int right = mid;
+            for(int i=start;i<end;i++){
+                if(right>=end || (left<mid && scratch[left]<=scratch[right])){
+                    keys[i] = scratch[left++];
+                }else{
+                    keys[i] = scratch[right++];
+                }
+            }
+        }
+    }
+}
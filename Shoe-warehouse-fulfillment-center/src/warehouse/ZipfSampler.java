@@ -0,0 +1,33 @@
+package warehouse;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks an index in {@code [0, n)} with probability proportional to {@code 1/(index+1)^exponent};
+ * an exponent of 0 is uniform, around 1 makes the first product dominate.
+ */
+public class ZipfSampler {
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double total = 0;
+        for(int i=0;i<n;i++){
+            total+=1.0/Math.pow(i+1, exponent);
+            cumulative[i] = total;
+        }
+        for(int i=0;i<n;i++){
+            cumulative[i]/=total;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        double u = random.nextDouble();
+        for(int i=0;i<cumulative.length-1;i++){
+            if(u<cumulative[i]){
+                return i;
+            }
+        }
+        return cumulative.length-1;
+    }
+}
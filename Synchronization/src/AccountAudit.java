@@ -0,0 +1,41 @@
+import logging.AsyncLogger;
+
+/**
+ * The promotional bonus and the audit lines shared by the cents-based accounts
+ * ({@link LockFreeBankAccount}, {@link StampedBankAccount} and {@link AccountEngine}), worded like {@link BankAccount}.
+ * {@code account} is put in front of each line; pass {@code ""} for a standalone account.
+ */
+final class AccountAudit {
+    /** Deposits of $5000 or more earn a $25 bonus. */
+    static final long PROMO_THRESHOLD_CENTS = 5000_00;
+    static final long PROMO_CENTS = 25_00;
+
+    private AccountAudit() {
+    }
+
+    static long promoCents(long amountCents){
+        return amountCents>=PROMO_THRESHOLD_CENTS ? PROMO_CENTS : 0;
+    }
+
+    static String dollars(long cents){
+        return String.format("%s%d.%02d", cents<0 ? "-" : "", Math.abs(cents/100), Math.abs(cents%100));
+    }
+
+    static void deposited(String account, long startingCents, long amountCents, long newCents){
+        AsyncLogger.printf("%sSTARTING BALANCE: %s, DEPOSIT (%s) : NEW BALANCE = %s%n",
+                account, dollars(startingCents), dollars(amountCents), dollars(newCents));
+        if(promoCents(amountCents)>0){
+            AsyncLogger.log("Congratulations, you earned a promotional deposit.");
+        }
+    }
+
+    static void withdrew(String account, long startingCents, long amountCents, long newCents){
+        AsyncLogger.printf("%sSTARTING BALANCE: %s, WITHDRAW (%s) : NEW BALANCE = %s%n",
+                account, dollars(startingCents), dollars(amountCents), dollars(newCents));
+    }
+
+    static void insufficientFunds(String account, long startingCents, long amountCents){
+        AsyncLogger.printf("%sSTARTING BALANCE: %s, WITHDRAW (%s) : INSUFFICIENT FUNDS!%n",
+                account, dollars(startingCents), dollars(amountCents));
+    }
+}
@@ -0,0 +1,241 @@
+import concurrency.WaitStrategy;
+import logging.AsyncLogger;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single-writer engine for account operations, in the style of the LMAX architecture.
+ * <p>
+ * Callers publish deposits, withdrawals and balance queries into a pre-allocated ring of commands and
+ * get a {@link CompletableFuture} back. One business thread owns every balance: it applies commands in
+ * sequence order with no lock, completes each future, and moves on. A second thread, the journal, follows
+ * behind it and writes the audit lines, so logging never slows the business thread down. Producers only
+ * wait when the journal is a whole ring behind.
+ * <p>
+ * Callers claim sequences with one {@code getAndIncrement} and mark their slot published with a release
+ * store of its sequence, so several producers can fill different slots at once while the business thread
+ * still sees them strictly in order.
+ * <p>
+ * Futures are completed on the business thread, so callbacks attached without an executor run there too;
+ * keep them short or use the {@code *Async} variants.
+ * Deposits earn the promotional bonus of {@link AccountAudit}, as in {@link BankAccount}.
+ * Create one with {@link #start}, which starts the two threads only after the engine is fully built; they are
+ * daemon threads, so an engine that is never closed does not keep the JVM alive.
+ * Call {@link #close()} once the producers are done; it drains every command claimed before it, and
+ * publishing afterwards throws {@link IllegalStateException}. Closing sets the top bit of the claim
+ * counter in the same atomic step that reads where the stream ends, so no command can slip in between.
+ */
+public class AccountEngine implements AutoCloseable {
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private enum Type { DEPOSIT, WITHDRAW, BALANCE }
+
+    private static final class Command {
+        Type type;
+        int account;
+        long amountCents;
+        long startingBalance;
+        long newBalance;
+        boolean succeeded;
+        CompletableFuture<?> result;
+    }
+
+    private final Command[] ring;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong journaled = new AtomicLong();
+    private final long[] balances;
+    private final boolean audit;
+    private final Thread businessThread;
+    private final Thread journalThread;
+    private volatile long end = Long.MAX_VALUE;
+
+    /** {@code ringSize} is rounded up to a power of two; with {@code audit} off the journal writes nothing. */
+    public static AccountEngine start(int accounts, long openingBalanceCents, int ringSize, boolean audit) {
+        AccountEngine engine = new AccountEngine(accounts, openingBalanceCents, ringSize, audit);
+        engine.businessThread.start();
+        engine.journalThread.start();
+        return engine;
+    }
+
+    private AccountEngine(int accounts, long openingBalanceCents, int ringSize, boolean audit) {
+        if(accounts<1 || ringSize<1 || ringSize>(1<<30) || openingBalanceCents<0){
+            throw new IllegalArgumentException("bad engine: "+accounts+" accounts, ring of "+ringSize);
+        }
+        int size = Integer.highestOneBit(ringSize);
+        if(size<ringSize){
+            size<<=1;
+        }
+        this.ring = new Command[size];
+        this.published = new AtomicLongArray(size);
+        for(int i=0;i<size;i++){
+            ring[i] = new Command();
+            published.set(i, -1);
+        }
+        this.mask = size-1;
+        this.balances = new long[accounts];
+        Arrays.fill(balances, openingBalanceCents);
+        this.audit = audit;
+
+        this.businessThread = new Thread(this::runBusinessLogic, "account-business");
+        this.journalThread = new Thread(this::runJournal, "account-journal");
+        businessThread.setDaemon(true);
+        journalThread.setDaemon(true);
+    }
+
+    /** Completes with the new balance in cents, bonus included. */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Long> deposit(int account, long amountCents) {
+        if(amountCents<=0){
+            throw new IllegalArgumentException("deposit must be positive: "+amountCents);
+        }
+        return (CompletableFuture<Long>) publish(Type.DEPOSIT, account, amountCents, new CompletableFuture<Long>());
+    }
+
+    /** Completes with false, leaving the balance unchanged, when the account holds less than {@code amountCents}. */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> withdraw(int account, long amountCents) {
+        if(amountCents<=0){
+            throw new IllegalArgumentException("withdrawal must be positive: "+amountCents);
+        }
+        return (CompletableFuture<Boolean>) publish(Type.WITHDRAW, account, amountCents, new CompletableFuture<Boolean>());
+    }
+
+    /** Completes with the balance in cents after every command published before this one. */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Long> balance(int account) {
+        return (CompletableFuture<Long>) publish(Type.BALANCE, account, 0, new CompletableFuture<Long>());
+    }
+
+    @Override
+    public void close() {
+        long claimedBeforeClose = claimed.getAndUpdate(sequence -> sequence | CLOSED);
+        if((claimedBeforeClose & CLOSED)==0){
+            end = claimedBeforeClose;
+        }
+        try {
+            businessThread.join();
+            journalThread.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CompletableFuture<?> publish(Type type, int account, long amountCents, CompletableFuture<?> result) {
+        if(account<0 || account>=balances.length){
+            throw new IndexOutOfBoundsException("no such account: "+account);
+        }
+        long sequence = claimed.getAndIncrement();
+        if(sequence<0){
+            throw new IllegalStateException("engine is closed");
+        }
+        int attempts = 0;
+        while(sequence - journaled.get() >= ring.length){
+            attempts = WaitStrategy.PARKING.idle(attempts);
+        }
+        int index = (int) sequence & mask;
+        Command command = ring[index];
+        command.type = type;
+        command.account = account;
+        command.amountCents = amountCents;
+        command.result = result;
+        published.setRelease(index, sequence);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runBusinessLogic() {
+        long next = 0;
+        int attempts = 0;
+        while(true){
+            long start = next;
+            while(published.getAcquire((int) next & mask)==next){
+                Command command = ring[(int) next & mask];
+                long balance = balances[command.account];
+                command.startingBalance = balance;
+                switch (command.type) {
+                    case DEPOSIT -> {
+                        long credit = command.amountCents + AccountAudit.promoCents(command.amountCents);
+                        command.succeeded = balance <= Long.MAX_VALUE - credit;
+                        if(command.succeeded){
+                            balance+=credit;
+                            ((CompletableFuture<Long>) command.result).complete(balance);
+                        }else{
+                            command.result.completeExceptionally(new ArithmeticException("balance overflow"));
+                        }
+                    }
+                    case WITHDRAW -> {
+                        command.succeeded = command.amountCents<=balance;
+                        if(command.succeeded){
+                            balance-=command.amountCents;
+                        }
+                        ((CompletableFuture<Boolean>) command.result).complete(command.succeeded);
+                    }
+                    case BALANCE -> ((CompletableFuture<Long>) command.result).complete(balance);
+                }
+                balances[command.account] = balance;
+                command.newBalance = balance;
+                next++;
+            }
+            if(next>start){
+                processed.setRelease(next);
+                attempts = 0;
+            }else if(next==end){
+                return;
+            }else{
+                attempts = WaitStrategy.PARKING.idle(attempts);
+            }
+        }
+    }
+
+    private void runJournal() {
+        long next = 0;
+        int attempts = 0;
+        while(true){
+            long available = processed.getAcquire();
+            if(available>next){
+                for(;next<available;next++){
+                    Command command = ring[(int) next & mask];
+                    if(audit){
+                        audit(command);
+                    }
+                    command.result = null;
+                }
+                journaled.setRelease(next);
+                attempts = 0;
+            }else if(!businessThread.isAlive() && processed.get()==next){
+                return;
+            }else{
+                attempts = WaitStrategy.PARKING.idle(attempts);
+            }
+        }
+    }
+
+    private static void audit(Command command) {
+        String account = "ACCOUNT "+command.account+" ";
+        switch (command.type) {
+            case DEPOSIT -> {
+                if(command.succeeded){
+                    AccountAudit.deposited(account, command.startingBalance, command.amountCents, command.newBalance);
+                }else{
+                    AsyncLogger.printf("%sDEPOSIT (%s) : REJECTED, BALANCE OVERFLOW%n", account,
+                            AccountAudit.dollars(command.amountCents));
+                }
+            }
+            case WITHDRAW -> {
+                if(command.succeeded){
+                    AccountAudit.withdrew(account, command.startingBalance, command.amountCents, command.newBalance);
+                }else{
+                    AccountAudit.insufficientFunds(account, command.startingBalance, command.amountCents);
+                }
+            }
+            case BALANCE -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import logging.AsyncLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deposits and withdrawals from many threads against a few hot accounts, three ways: every update
+ * under the account's monitor as {@link BankAccount} does with {@code lockBalance}, a CAS loop per
+ * update as in {@link LockFreeBankAccount}, and commands published to an {@link AccountEngine} whose
+ * single business thread applies them. Each run checks the first account's final balance.
+ * <pre>
+ *     java AccountEngineBenchmark [threads] [operationsPerThread] [hotAccounts]
+ * </pre>
+ */
+public class AccountEngineBenchmark {
+    private static final long OPENING_BALANCE = 1000_00;
+    private static final long DEPOSIT = 150;
+    private static final long WITHDRAWAL = 100;
+
+    interface Worker {
+        void run(int thread, int operations) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length>0 ? Integer.parseInt(args[0]) : 8;
+        int operations = args.length>1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int hotAccounts = args.length>2 ? Integer.parseInt(args[2]) : 1;
+        long deposits = ((operations+1)/2 + hotAccounts-1)/hotAccounts;
+        long withdrawals = (operations/2 + hotAccounts-1)/hotAccounts;
+        long expected = OPENING_BALANCE + threads*(deposits*DEPOSIT - withdrawals*WITHDRAWAL);
+
+        for(int round=0;round<2;round++){
+            long[] balances = new long[hotAccounts];
+            Object[] locks = new Object[hotAccounts];
+            for(int i=0;i<hotAccounts;i++){
+                balances[i] = OPENING_BALANCE;
+                locks[i] = new Object();
+            }
+            run("monitor per account", threads, operations, (thread, count)->{
+                for(int i=0;i<count;i++){
+                    int account = (i>>1) % hotAccounts;
+                    synchronized (locks[account]){
+                        if((i&1)==0){
+                            balances[account]+=DEPOSIT;
+                        }else if(balances[account]>=WITHDRAWAL){
+                            balances[account]-=WITHDRAWAL;
+                        }
+                    }
+                }
+            });
+            check(balances[0], expected);
+
+            LockFreeBankAccount[] accounts = new LockFreeBankAccount[hotAccounts];
+            for(int i=0;i<hotAccounts;i++){
+                accounts[i] = new LockFreeBankAccount("Tom", OPENING_BALANCE);
+                accounts[i].setLogging(false);
+            }
+            run("CAS per update", threads, operations, (thread, count)->{
+                for(int i=0;i<count;i++){
+                    LockFreeBankAccount account = accounts[(i>>1) % hotAccounts];
+                    if((i&1)==0){
+                        account.deposit(DEPOSIT);
+                    }else{
+                        account.withdraw(WITHDRAWAL);
+                    }
+                }
+            });
+            check(accounts[0].getBalanceCents(), expected);
+
+            try(AccountEngine engine = AccountEngine.start(hotAccounts, OPENING_BALANCE, 1 << 16, false)){
+                run("single-writer engine", threads, operations, (thread, count)->{
+                    CompletableFuture<?> last = null;
+                    for(int i=0;i<count;i++){
+                        int account = (i>>1) % hotAccounts;
+                        last = (i&1)==0 ? engine.deposit(account, DEPOSIT) : engine.withdraw(account, WITHDRAWAL);
+                    }
+                    if(last!=null){
+                        last.join();
+                    }
+                });
+                check(engine.balance(0).join(), expected);
+            }
+        }
+    }
+
+    private static void run(String name, int threads, int operations, Worker worker) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for(int t=0;t<threads;t++){
+            int thread = t;
+            Thread workerThread = new Thread(()->{
+                try {
+                    worker.run(thread, operations);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            workerThread.start();
+            workers.add(workerThread);
+        }
+        for(Thread workerThread: workers){
+            workerThread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        AsyncLogger.printf("%-22s %d threads | %,12.0f operations/s%n",
+                name, threads, (double) threads*operations*1e9/elapsed);
+    }
+
+    private static void check(long balance, long expected) {
+        if(balance!=expected){
+            AsyncLogger.printf("BALANCE MISMATCH: %s, expected %s%n",
+                    AccountAudit.dollars(balance), AccountAudit.dollars(expected));
+        }
+    }
+}
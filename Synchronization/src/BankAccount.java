@@ -1,3 +1,5 @@
+import logging.AsyncLogger;
+
 public class BankAccount {
     private double balance;
     private String name;
@@ -21,14 +23,14 @@ public class BankAccount {
     public void setName(String name) {
         synchronized (lockName){
             this.name = name;
-            System.out.println("Updated name = "+ this.name);
+            AsyncLogger.log("Updated name = "+ this.name);
         }
 
     }
 
     public void deposit(double amount){
         try{
-            System.out.println("Deposit - Talking to the teller at the bank...");
+            AsyncLogger.log("Deposit - Talking to the teller at the bank...");
             Thread.sleep(7000);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
@@ -36,7 +38,7 @@ public class BankAccount {
         synchronized (lockBalance){
             double origbalance = balance;
             balance+=amount;
-            System.out.printf("STARTING BALANCE: %.0f, DEPOSIT (%.0f) : NEW BALANCE = %.0f%n", origbalance, amount, balance);
+            AsyncLogger.printf("STARTING BALANCE: %.0f, DEPOSIT (%.0f) : NEW BALANCE = %.0f%n", origbalance, amount, balance);
             addPromoDollars(amount);
         }
 
@@ -45,7 +47,7 @@ public class BankAccount {
     private void addPromoDollars(double amount){
         if(amount>=5000){
             synchronized (lockBalance){
-                System.out.println("Congratulations, you earned a promotional deposit.");
+                AsyncLogger.log("Congratulations, you earned a promotional deposit.");
                 balance+=25;
             }
         }
@@ -61,9 +63,9 @@ public class BankAccount {
         double origbalance = balance;
         if(amount<=balance){
             balance-=amount;
-            System.out.printf("STARTING BALANCE: %.0f, WITHDRAW (%.0f) : NEW BALANCE = %.0f%n", origbalance, amount, balance);
+            AsyncLogger.printf("STARTING BALANCE: %.0f, WITHDRAW (%.0f) : NEW BALANCE = %.0f%n", origbalance, amount, balance);
         }else{
-            System.out.printf("STARTING BALANCE: %.0f, WITHDRAW (%.0f) : INSUFFICIENT FUNDS!", origbalance, amount);
+            AsyncLogger.printf("STARTING BALANCE: %.0f, WITHDRAW (%.0f) : INSUFFICIENT FUNDS!", origbalance, amount);
         }
     }
 
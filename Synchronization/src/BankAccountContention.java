@@ -0,0 +1,62 @@
+import logging.AsyncLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hammers one {@link LockFreeBankAccount} from many threads with small deposits and withdrawals, then
+ * checks the balance to the cent against what the threads say they moved, and shows how far the same
+ * sums drift when kept in a {@code double}.
+ * <pre>
+ *     java BankAccountContention [threads] [operationsPerThread]
+ * </pre>
+ */
+public class BankAccountContention {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length>0 ? Integer.parseInt(args[0]) : 8;
+        int operations = args.length>1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        LockFreeBankAccount account = new LockFreeBankAccount("Tom", 10000_00);
+        account.setLogging(false);
+        LongAdder deposited = new LongAdder();
+        LongAdder withdrawn = new LongAdder();
+
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for(int t=0;t<threads;t++){
+            Thread worker = new Thread(()->{
+                long in = 0;
+                long out = 0;
+                for(int i=0;i<operations;i++){
+                    if((i&1)==0){
+                        account.deposit(110);
+                        in+=110;
+                    }else if(account.withdraw(130)){
+                        out+=130;
+                    }
+                }
+                deposited.add(in);
+                withdrawn.add(out);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for(Thread worker: workers){
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long expected = 10000_00 + deposited.sum() - withdrawn.sum();
+        double drifting = 10000;
+        for(long i=0;i<(long) threads*operations/2;i++){
+            drifting+=1.10;
+        }
+        AsyncLogger.printf("%d threads, %d operations in %d ms (%.0f ops/s)%n",
+                threads, (long) threads*operations, elapsed/1_000_000, (double) threads*operations*1e9/elapsed);
+        AsyncLogger.printf("Balance %s, expected %s: %s%n", AccountAudit.dollars(account.getBalanceCents()),
+                AccountAudit.dollars(expected), account.getBalanceCents()==expected ? "exact" : "MISMATCH");
+        AsyncLogger.printf("The same deposits summed as double: %.6f instead of %s%n",
+                drifting, AccountAudit.dollars(10000_00 + (long) threads*operations/2*110));
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Balances of many accounts, in cents like {@link LockFreeBankAccount}, guarded by a fixed set of
+ * striped locks instead of one lock per account.
+ * <p>
+ * A transfer locks the stripes of both accounts, always the lower-numbered stripe first, so two
+ * transfers going opposite ways between the same accounts can never deadlock; when both accounts
+ * share a stripe it is locked once. Runs of eight neighbouring accounts (64 bytes of balances) share
+ * a stripe, which keeps most writes under different stripes on different cache lines; the array
+ * itself isn't line-aligned, so two neighbouring runs can still meet in one line.
+ */
+public class Ledger {
+    private static final int ACCOUNTS_PER_LINE_SHIFT = 3;
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final long[] balances;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    /** {@code stripes}, at most 65536, is rounded up to a power of two. */
+    public Ledger(int accounts, long openingBalanceCents, int stripes) {
+        if(accounts<1 || stripes<1 || stripes>MAX_STRIPES || openingBalanceCents<0){
+            throw new IllegalArgumentException("bad ledger: "+accounts+" accounts, "+stripes+" stripes");
+        }
+        this.balances = new long[accounts];
+        Arrays.fill(balances, openingBalanceCents);
+        int size = Integer.highestOneBit(stripes);
+        if(size<stripes){
+            size<<=1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for(int i=0;i<size;i++){
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size-1;
+    }
+
+    public int accounts() {
+        return balances.length;
+    }
+
+    public long balance(int account) {
+        ReentrantLock lock = stripes[stripe(account)];
+        lock.lock();
+        try{
+            return balances[account];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Sum of all balances, taken with every stripe locked so no transfer is counted half-way. */
+    public long totalBalance() {
+        for(ReentrantLock lock: stripes){
+            lock.lock();
+        }
+        try{
+            long total = 0;
+            for(long balance: balances){
+                total+=balance;
+            }
+            return total;
+        } finally {
+            for(int i=stripes.length-1;i>=0;i--){
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /** Returns false, moving nothing, when {@code from} holds less than {@code amountCents}. */
+    public boolean transfer(int from, int to, long amountCents) {
+        check(from, to, amountCents);
+        int pair = stripePair(from, to);
+        int first = pair >>> 16;
+        int second = pair & 0xFFFF;
+        lock(first, second);
+        try{
+            return move(from, to, amountCents);
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * Runs every transfer and returns how many succeeded. The batch is ordered by the stripes it
+     * needs, so each run of transfers between the same pair of stripes takes the locks only once;
+     * transfers are therefore not applied in list order.
+     */
+    public int transferAll(List<Transfer> transfers) {
+        long[] keys = new long[transfers.size()];
+        for(int i=0;i<keys.length;i++){
+            Transfer transfer = transfers.get(i);
+            check(transfer.from(), transfer.to(), transfer.amountCents());
+            keys[i] = ((long) stripePair(transfer.from(), transfer.to()) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int succeeded = 0;
+        int i = 0;
+        while(i<keys.length){
+            int pair = (int) (keys[i] >>> 32);
+            int first = pair >>> 16;
+            int second = pair & 0xFFFF;
+            lock(first, second);
+            try{
+                do{
+                    Transfer transfer = transfers.get((int) keys[i++]);
+                    if(move(transfer.from(), transfer.to(), transfer.amountCents())){
+                        succeeded++;
+                    }
+                }while(i<keys.length && (int) (keys[i] >>> 32)==pair);
+            } finally {
+                unlock(first, second);
+            }
+        }
+        return succeeded;
+    }
+
+    private boolean move(int from, int to, long amountCents) {
+        if(balances[from]<amountCents){
+            return false;
+        }
+        balances[from]-=amountCents;
+        balances[to]+=amountCents;
+        return true;
+    }
+
+    private void check(int from, int to, long amountCents) {
+        if(amountCents<=0){
+            throw new IllegalArgumentException("transfer must be positive: "+amountCents);
+        }
+        if(from<0 || from>=balances.length || to<0 || to>=balances.length){
+            throw new IndexOutOfBoundsException("no such account: "+(from<0 || from>=balances.length ? from : to));
+        }
+    }
+
+    /** Both stripes of a transfer, lower one in the high half; stripes fit in 16 bits each. */
+    private int stripePair(int from, int to) {
+        int a = stripe(from);
+        int b = stripe(to);
+        return (Math.min(a, b) << 16) | Math.max(a, b);
+    }
+
+    private void lock(int first, int second) {
+        stripes[first].lock();
+        if(second!=first){
+            stripes[second].lock();
+        }
+    }
+
+    private void unlock(int first, int second) {
+        if(second!=first){
+            stripes[second].unlock();
+        }
+        stripes[first].unlock();
+    }
+
+    private int stripe(int account) {
+        return (account >>> ACCOUNTS_PER_LINE_SHIFT) & stripeMask;
+    }
+}
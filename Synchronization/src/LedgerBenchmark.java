@@ -0,0 +1,89 @@
+import logging.AsyncLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfer throughput of a {@link Ledger} for each account count and hot-account skew, one transfer
+ * at a time and in batches. With skew {@code s}, each side of a transfer is one of 16 hot accounts
+ * with probability {@code s}, and any account otherwise. Random pairs move money both ways between the
+ * same accounts, so a lock-ordering bug would show up as a hang; the total is checked after every run.
+ * <pre>
+ *     java LedgerBenchmark [threads] [transfersPerThread] [stripes] [batchSize]
+ * </pre>
+ */
+public class LedgerBenchmark {
+    private static final int HOT_ACCOUNTS = 16;
+    private static final long OPENING_BALANCE = 1000_00;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length>0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int transfers = args.length>1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int stripes = args.length>2 ? Integer.parseInt(args[2]) : 1024;
+        int batchSize = args.length>3 ? Integer.parseInt(args[3]) : 64;
+
+        for(int accounts: new int[]{1_000, 100_000, 1_000_000}){
+            for(double skew: new double[]{0, 0.5, 0.9}){
+                for(int batch: new int[]{1, batchSize}){
+                    run(threads, transfers, accounts, stripes, skew, batch);
+                }
+            }
+        }
+    }
+
+    private static void run(int threads, int transfers, int accounts, int stripes, double skew, int batch)
+            throws InterruptedException {
+        Ledger ledger = new Ledger(accounts, OPENING_BALANCE, stripes);
+        LongAdder succeeded = new LongAdder();
+
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for(int t=0;t<threads;t++){
+            SplittableRandom random = new SplittableRandom(t);
+            Thread worker = new Thread(()->{
+                List<Transfer> pending = new ArrayList<>(batch);
+                int done = 0;
+                for(int i=0;i<transfers;i++){
+                    int from = account(random, accounts, skew);
+                    int to = account(random, accounts, skew);
+                    long amount = 1 + random.nextInt(100_00);
+                    if(batch==1){
+                        if(ledger.transfer(from, to, amount)){
+                            done++;
+                        }
+                    }else{
+                        pending.add(new Transfer(from, to, amount));
+                        if(pending.size()==batch){
+                            done+=ledger.transferAll(pending);
+                            pending.clear();
+                        }
+                    }
+                }
+                if(!pending.isEmpty()){
+                    done+=ledger.transferAll(pending);
+                }
+                succeeded.add(done);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for(Thread worker: workers){
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        boolean conserved = ledger.totalBalance()==accounts*OPENING_BALANCE;
+        AsyncLogger.printf("accounts=%,9d skew=%.1f batch=%3d threads=%d | %,12.0f transfers/s | %3.0f%% succeeded | total %s%n",
+                accounts, skew, batch, threads, (double) threads*transfers*1e9/elapsed,
+                100.0*succeeded.sum()/((long) threads*transfers), conserved ? "conserved" : "CHANGED");
+    }
+
+    private static int account(SplittableRandom random, int accounts, double skew) {
+        if(random.nextDouble()<skew){
+            return random.nextInt(Math.min(HOT_ACCOUNTS, accounts));
+        }
+        return random.nextInt(accounts);
+    }
+}
@@ -0,0 +1,90 @@
+import logging.AsyncLogger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@link BankAccount} without locks: the balance is a {@code long} of cents, so sums are exact, and
+ * every update is one compare-and-set loop on it. A deposit and its promotional bonus land in the same
+ * CAS, and a withdrawal checks for sufficient funds against the exact balance it replaces, so no
+ * reader ever sees half an operation and no withdrawal can overdraw the account.
+ * The teller delays of {@link BankAccount} are left out.
+ */
+public class LockFreeBankAccount {
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(LockFreeBankAccount.class, "balanceCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long balanceCents;
+    private volatile String name;
+    private boolean logging = true;
+
+    public LockFreeBankAccount(String name, long balanceCents) {
+        this.balanceCents = balanceCents;
+        this.name = name;
+    }
+
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        if(logging){
+            AsyncLogger.log("Updated name = "+ name);
+        }
+    }
+
+    /** Turns the per-operation log lines off for contention tests; call before the threads start. */
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    public void deposit(long amountCents){
+        if(amountCents<=0){
+            throw new IllegalArgumentException("deposit must be positive: "+amountCents);
+        }
+        long credit = amountCents + AccountAudit.promoCents(amountCents);
+        long origBalance = (long) BALANCE.getVolatile(this);
+        while(!BALANCE.weakCompareAndSet(this, origBalance, Math.addExact(origBalance, credit))){
+            origBalance = (long) BALANCE.getVolatile(this);
+        }
+        if(logging){
+            AccountAudit.deposited("", origBalance, amountCents, origBalance + credit);
+        }
+    }
+
+    /** Returns false, leaving the balance unchanged, when it is lower than {@code amountCents}. */
+    public boolean withdraw(long amountCents){
+        if(amountCents<=0){
+            throw new IllegalArgumentException("withdrawal must be positive: "+amountCents);
+        }
+        long origBalance = (long) BALANCE.getVolatile(this);
+        while(true){
+            if(amountCents>origBalance){
+                if(logging){
+                    AccountAudit.insufficientFunds("", origBalance, amountCents);
+                }
+                return false;
+            }
+            if(BALANCE.weakCompareAndSet(this, origBalance, origBalance - amountCents)){
+                break;
+            }
+            origBalance = (long) BALANCE.getVolatile(this);
+        }
+        if(logging){
+            AccountAudit.withdrew("", origBalance, amountCents, origBalance - amountCents);
+        }
+        return true;
+    }
+}
@@ -1,3 +1,5 @@
+import logging.AsyncLogger;
+
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 public class Main {
@@ -29,6 +31,26 @@ public class Main {
         }
 
 
-        System.out.println("Final Balance: "+ bankAccount.getBalance());
+        AsyncLogger.log("Final Balance: "+ bankAccount.getBalance());
+
+        LockFreeBankAccount lockFreeAccount = new LockFreeBankAccount("Tom", 10000_00);
+        Thread[] threads = {
+                new Thread(()-> lockFreeAccount.withdraw(2500_00)),
+                new Thread(()-> lockFreeAccount.deposit(5000_00)),
+                new Thread(()-> lockFreeAccount.setName("Tim")),
+                new Thread(()-> lockFreeAccount.withdraw(5000_00))
+        };
+        for(Thread thread: threads){
+            thread.start();
+        }
+        try{
+            for(Thread thread: threads){
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        AsyncLogger.log("Lock-free Final Balance: "+ AccountAudit.dollars(lockFreeAccount.getBalanceCents()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+import logging.AsyncLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Balance reads mixed with deposits on one shared account, at read shares from 50% to 99%, guarded by
+ * {@code synchronized}, by a {@link ReentrantReadWriteLock}, and by the optimistic reads of
+ * {@link StampedBankAccount}. Each run lasts {@code millis} and reports operations per second.
+ * <pre>
+ *     java ReadMostlyBenchmark [threads] [millis]
+ * </pre>
+ */
+public class ReadMostlyBenchmark {
+    private static final long OPENING_BALANCE = 1000_00;
+    private static volatile long consumed;
+
+    interface Account {
+        long balance();
+
+        void deposit(long amountCents);
+    }
+
+    static class SynchronizedAccount implements Account {
+        private long balanceCents = OPENING_BALANCE;
+
+        @Override
+        public synchronized long balance() {
+            return balanceCents;
+        }
+
+        @Override
+        public synchronized void deposit(long amountCents) {
+            balanceCents+=amountCents;
+        }
+    }
+
+    static class ReadWriteLockAccount implements Account {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long balanceCents = OPENING_BALANCE;
+
+        @Override
+        public long balance() {
+            lock.readLock().lock();
+            try{
+                return balanceCents;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void deposit(long amountCents) {
+            lock.writeLock().lock();
+            try{
+                balanceCents+=amountCents;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    static class StampedAccount implements Account {
+        private final StampedBankAccount account = new StampedBankAccount("Tom", OPENING_BALANCE);
+
+        StampedAccount() {
+            account.setLogging(false);
+        }
+
+        @Override
+        public long balance() {
+            return account.getBalanceCents();
+        }
+
+        @Override
+        public void deposit(long amountCents) {
+            account.deposit(amountCents);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length>0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length>1 ? Long.parseLong(args[1]) : 1000;
+
+        for(int readPercent: new int[]{50, 90, 95, 99}){
+            run("synchronized", new SynchronizedAccount(), threads, millis, readPercent);
+            run("ReentrantReadWriteLock", new ReadWriteLockAccount(), threads, millis, readPercent);
+            run("StampedLock optimistic", new StampedAccount(), threads, millis, readPercent);
+        }
+    }
+
+    private static void run(String name, Account account, int threads, long millis, int readPercent)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        LongAdder deposited = new LongAdder();
+        long deadline = System.nanoTime() + millis*1_000_000;
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for(int t=0;t<threads;t++){
+            SplittableRandom random = new SplittableRandom(t);
+            Thread worker = new Thread(()->{
+                long done = 0;
+                long in = 0;
+                long sink = 0;
+                while((done & 1023)!=0 || System.nanoTime()<deadline){
+                    if(random.nextInt(100)<readPercent){
+                        sink+=account.balance();
+                    }else{
+                        account.deposit(1);
+                        in++;
+                    }
+                    done++;
+                }
+                consumed = sink;
+                operations.add(done);
+                deposited.add(in);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for(Thread worker: workers){
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean exact = account.balance()==OPENING_BALANCE + deposited.sum();
+        AsyncLogger.printf("reads=%2d%% %-24s %d threads | %,13.0f operations/s%s%n",
+                readPercent, name, threads, operations.sum()*1e9/elapsed, exact ? "" : " | BALANCE MISMATCH");
+    }
+}
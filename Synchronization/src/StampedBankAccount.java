@@ -0,0 +1,111 @@
+import logging.AsyncLogger;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Read-mostly {@link BankAccount}: the balance is a {@code long} of cents guarded by a {@link StampedLock}.
+ * {@code getBalanceCents} and {@code getName} first read optimistically, which writes nothing shared
+ * and never blocks a writer, and only take the read lock when a write slipped in between.
+ * Deposits (promotional bonus included) and withdrawals take the write lock.
+ */
+public class StampedBankAccount {
+    private final StampedLock lock = new StampedLock();
+    private long balanceCents;
+    private String name;
+    private boolean logging = true;
+
+    public StampedBankAccount(String name, long balanceCents) {
+        this.balanceCents = balanceCents;
+        this.name = name;
+    }
+
+    public long getBalanceCents() {
+        long stamp = lock.tryOptimisticRead();
+        long balance = balanceCents;
+        if(!lock.validate(stamp)){
+            stamp = lock.readLock();
+            try{
+                balance = balanceCents;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return balance;
+    }
+
+    public String getName() {
+        long stamp = lock.tryOptimisticRead();
+        String current = name;
+        if(!lock.validate(stamp)){
+            stamp = lock.readLock();
+            try{
+                current = name;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return current;
+    }
+
+    public void setName(String name) {
+        long stamp = lock.writeLock();
+        try{
+            this.name = name;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if(logging){
+            AsyncLogger.log("Updated name = "+ name);
+        }
+    }
+
+    /** Turns the per-operation log lines off for benchmarks; call before the threads start. */
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    public void deposit(long amountCents){
+        if(amountCents<=0){
+            throw new IllegalArgumentException("deposit must be positive: "+amountCents);
+        }
+        long promo = AccountAudit.promoCents(amountCents);
+        long origBalance;
+        long stamp = lock.writeLock();
+        try{
+            origBalance = balanceCents;
+            balanceCents = Math.addExact(origBalance, amountCents + promo);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if(logging){
+            AccountAudit.deposited("", origBalance, amountCents, origBalance + amountCents + promo);
+        }
+    }
+
+    /** Returns false, leaving the balance unchanged, when it is lower than {@code amountCents}. */
+    public boolean withdraw(long amountCents){
+        if(amountCents<=0){
+            throw new IllegalArgumentException("withdrawal must be positive: "+amountCents);
+        }
+        long origBalance;
+        boolean withdrawn;
+        long stamp = lock.writeLock();
+        try{
+            origBalance = balanceCents;
+            withdrawn = amountCents<=origBalance;
+            if(withdrawn){
+                balanceCents = origBalance - amountCents;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if(logging){
+            if(withdrawn){
+                AccountAudit.withdrew("", origBalance, amountCents, origBalance - amountCents);
+            }else{
+                AccountAudit.insufficientFunds("", origBalance, amountCents);
+            }
+        }
+        return withdrawn;
+    }
+}
@@ -0,0 +1,3 @@
+/** Moves {@code amountCents} from account {@code from} to account {@code to} of a {@link Ledger}. */
+public record Transfer(int from, int to, long amountCents) {
+}